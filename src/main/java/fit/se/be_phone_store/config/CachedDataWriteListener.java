@@ -0,0 +1,80 @@
+package fit.se.be_phone_store.config;
+
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.io.Serializable;
+import java.util.Set;
+
+/**
+ * Cached Data Write Listener
+ * Holds read-only transactions on the primary after a commit that changed data kept in the
+ * second-level entity or query caches. Rows read from a lagging replica right after such a
+ * commit would otherwise be cached again and served until their region expires.
+ */
+public class CachedDataWriteListener implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    // Tables read by cacheable finders without being cached entities themselves
+    private static final Set<String> CACHED_QUERY_TABLES = Set.of("product_colors");
+
+    private final ReadWriteRoutingDataSource routingDataSource;
+
+    public CachedDataWriteListener(ReadWriteRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        if (persister.canWriteToCache()) {
+            return true;
+        }
+        for (Serializable space : persister.getQuerySpaces()) {
+            if (CACHED_QUERY_TABLES.contains(space.toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        onCommit(event.getPersister());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        onCommit(event.getPersister());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        onCommit(event.getPersister());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Nothing was written
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nothing was written
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Nothing was written
+    }
+
+    private void onCommit(EntityPersister persister) {
+        if (requiresPostCommitHandling(persister)) {
+            routingDataSource.holdReadsOnPrimary();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package fit.se.be_phone_store.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate Limit Configuration Properties (app.rate-limit.*)
+ * Route rules are keyed by client IP; account limits are keyed by email and applied by the services.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Upper bound on in-memory buckets; idle buckets are evicted after idleTimeout
+    private long maxBuckets = 100000;
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    // Use X-Forwarded-For as client IP (only behind a trusted proxy)
+    private boolean trustForwardedFor = false;
+
+    // Also enforce limits through the shared rate_limit_counters table (multi-node)
+    private boolean shared = false;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    private Map<String, Limit> accounts = new HashMap<>();
+
+    /**
+     * Per-IP limit on route patterns (relative to the context path)
+     */
+    @Data
+    public static class Rule {
+        private String name;
+        private String method;
+        // Ant-style path patterns; the rule applies if any matches
+        private List<String> patterns = new ArrayList<>();
+        // Only apply when this query parameter is present (e.g. search)
+        private String param;
+        private int capacity = 60;
+        private Duration period = Duration.ofMinutes(1);
+    }
+
+    /**
+     * Per-account limit
+     */
+    @Data
+    public static class Limit {
+        private int capacity = 5;
+        private Duration period = Duration.ofMinutes(1);
+    }
+}
@@ -0,0 +1,77 @@
+package fit.se.be_phone_store.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import fit.se.be_phone_store.util.AuthenticatedUser;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Read/Write Routing DataSource
+ * Sends read-only transactions to the replica while it is healthy, everything else to the primary.
+ * A user who just ran a read-write transaction stays on the primary for app.datasource.replica.sticky-seconds,
+ * so their own writes are visible even while the replica lags. After a commit that changes
+ * second-level cached data every reader stays on the primary for the same window (see CachedDataWriteListener).
+ * Must sit behind a LazyConnectionDataSourceProxy: the read-only flag is only known once the
+ * transaction has started, not when the transaction manager opens the session.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private final BooleanSupplier replicaHealthy;
+    private final Cache<Long, Boolean> stickyUsers;
+    private final long stickyWindowNanos;
+    private volatile long readsOnPrimaryUntil = System.nanoTime();
+
+    public ReadWriteRoutingDataSource(BooleanSupplier replicaHealthy, Duration stickyWindow) {
+        this.replicaHealthy = replicaHealthy;
+        this.stickyUsers = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(stickyWindow)
+                .build();
+        this.stickyWindowNanos = stickyWindow.toNanos();
+    }
+
+    /**
+     * Route all read-only transactions to the primary for the sticky window
+     */
+    public void holdReadsOnPrimary() {
+        readsOnPrimaryUntil = System.nanoTime() + stickyWindowNanos;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long userId = currentUserId();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // A write transaction (or plain JDBC outside one): primary, and pin the user there for a while
+            if (userId != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                stickyUsers.put(userId, Boolean.TRUE);
+            }
+            return Route.PRIMARY;
+        }
+
+        if (userId != null && stickyUsers.getIfPresent(userId) != null) {
+            return Route.PRIMARY;
+        }
+        if (System.nanoTime() - readsOnPrimaryUntil < 0) {
+            // Cached data just changed: a lagging replica could load old rows back into the shared caches
+            return Route.PRIMARY;
+        }
+        return replicaHealthy.getAsBoolean() ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser) {
+            return ((AuthenticatedUser) authentication.getPrincipal()).getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,78 @@
+package fit.se.be_phone_store.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replica Health Monitor
+ * Periodically probes the replica and reports it unhealthy when it cannot be reached, is not
+ * replicating, or lags the primary by more than app.datasource.replica.max-lag-seconds.
+ * The replica starts unhealthy, so reads stay on the primary until the first probe passes.
+ */
+@Slf4j
+public class ReplicaHealthMonitor {
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final long maxLagSeconds;
+    private volatile boolean healthy = false;
+
+    public ReplicaHealthMonitor(DataSource replicaDataSource, long maxLagSeconds, MeterRegistry meterRegistry) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.replicaJdbcTemplate.setQueryTimeout(2);
+        this.maxLagSeconds = maxLagSeconds;
+
+        Gauge.builder("db.replica.healthy", this, monitor -> monitor.isHealthy() ? 1 : 0)
+                .description("1 while read-only transactions are routed to the replica")
+                .register(meterRegistry);
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * Probe the replica and update the routing decision
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.health-check-interval-ms:5000}")
+    public void check() {
+        boolean nowHealthy;
+        try {
+            nowHealthy = isWithinLag();
+        } catch (RuntimeException e) {
+            log.debug("Replica probe failed: {}", e.getMessage());
+            nowHealthy = false;
+        }
+
+        if (nowHealthy != healthy) {
+            if (nowHealthy) {
+                log.info("Replica healthy, routing read-only transactions to it");
+            } else {
+                log.warn("Replica unhealthy, routing read-only transactions to the primary");
+            }
+        }
+        healthy = nowHealthy;
+    }
+
+    private boolean isWithinLag() {
+        List<Map<String, Object>> status = replicaJdbcTemplate.queryForList("SHOW SLAVE STATUS");
+        if (status.isEmpty()) {
+            // Not configured as a replica (e.g. the same server in development): nothing to lag behind
+            replicaJdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            return true;
+        }
+
+        Object lag = status.get(0).get("Seconds_Behind_Master");
+        if (lag == null) {
+            // Replication threads are stopped
+            return false;
+        }
+        return Long.parseLong(lag.toString()) <= maxLagSeconds;
+    }
+}
@@ -0,0 +1,14 @@
+package fit.se.be_phone_store.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Scheduling Configuration
+ * Enables @Scheduled background jobs (token revocation sync, expiry cleanup, abandoned cart sweeper,
+ * replica health checks, reference data version checks)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,65 @@
+package fit.se.be_phone_store.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Sequence Initialization
+ * Moves the pooled ID sequences past the IDs already issued by AUTO_INCREMENT, so the
+ * tables that switched from IDENTITY keep unique IDs. Runs once the schema is updated
+ * and before the application takes traffic, and never moves a sequence backwards.
+ * Uses the standard NEXT VALUE FOR / ALTER SEQUENCE syntax that MariaDB shares with H2.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SequenceInitConfig {
+
+    // allocationSize of the @SequenceGenerator declarations: each value hands out the block ending at it
+    private static final int ALLOCATION_SIZE = 50;
+
+    // sequence -> table, matching the @SequenceGenerator declarations on the entities
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "order_items_seq", "order_items",
+            "order_tracking_seq", "order_tracking",
+            "cart_items_seq", "cart_items",
+            "product_colors_seq", "product_colors",
+            "product_specifications_seq", "product_specifications",
+            "reviews_seq", "reviews");
+
+    private final JdbcTemplate jdbcTemplate;
+    // Depending on the EntityManagerFactory guarantees ddl-auto has created the sequences
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES.forEach(this::alignSequence);
+    }
+
+    /**
+     * Restart the sequence so its next block starts after the highest existing ID
+     * @return true if the sequence had to be moved
+     */
+    public boolean alignSequence(String sequence, String table) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        if (maxId == null || maxId == 0) {
+            return false;
+        }
+
+        // Skipping one block is cheaper than reading the sequence state in a vendor-specific way
+        Long next = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + sequence, Long.class);
+        if (next != null && next - ALLOCATION_SIZE >= maxId) {
+            return false;
+        }
+
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + ALLOCATION_SIZE));
+        log.debug("Sequence {} aligned with {} (max id {})", sequence, table, maxId);
+        return true;
+    }
+}
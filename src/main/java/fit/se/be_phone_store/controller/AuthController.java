@@ -12,7 +12,11 @@ import fit.se.be_phone_store.repository.UserRepository;
 import fit.se.be_phone_store.service.AuthService;
 import fit.se.be_phone_store.service.EmailVerificationService;
 import fit.se.be_phone_store.service.UserService;
+import fit.se.be_phone_store.service.RateLimitService;
+import fit.se.be_phone_store.service.RefreshTokenService;
+import fit.se.be_phone_store.util.AuthenticatedUser;
 import fit.se.be_phone_store.util.JwtUtils;
+import fit.se.be_phone_store.util.PrincipalCache;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -50,6 +54,15 @@ public class AuthController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RateLimitService rateLimitService;
+
     /**
      * User Registration (Signup)
      * POST /api/auth/signup
@@ -123,12 +136,7 @@ public class AuthController {
         String refreshToken = (String) data.get("refreshToken");
         
         // Set refresh token as httpOnly cookie
-        Cookie refreshTokenCookie = new Cookie("refresh_token", refreshToken);
-        refreshTokenCookie.setHttpOnly(true);
-        refreshTokenCookie.setSecure(false); // Set to true in production with HTTPS
-        refreshTokenCookie.setPath("/api");
-        refreshTokenCookie.setMaxAge(7 * 24 * 60 * 60); // 7 days in seconds
-        httpResponse.addCookie(refreshTokenCookie);
+        addRefreshTokenCookie(httpResponse, refreshToken);
         
         // Return formatted response
         ApiResponse<LoginResponse> formattedResponse = ApiResponse.success(
@@ -148,25 +156,14 @@ public class AuthController {
             HttpServletRequest request,
             HttpServletResponse httpResponse) {
         
-        // Get refresh token from cookie
-        String refreshToken = null;
-        Cookie[] cookies = request.getCookies();
-        if (cookies != null) {
-            for (Cookie cookie : cookies) {
-                if ("refresh_token".equals(cookie.getName())) {
-                    refreshToken = cookie.getValue();
-                    break;
-                }
-            }
-        }
+        // Get refresh token from cookie and rotate it (a replayed token revokes its family)
+        String refreshToken = getRefreshTokenCookie(request);
+        RefreshTokenService.RotatedRefreshToken rotated = refreshTokenService.rotate(refreshToken);
+        addRefreshTokenCookie(httpResponse, rotated.getRefreshToken());
         
-        if (refreshToken == null || !jwtUtils.validateRefreshToken(refreshToken)) {
-            throw new fit.se.be_phone_store.exception.AuthenticationException("Refresh token không hợp lệ hoặc đã hết hạn");
-        }
-   
-        String email = jwtUtils.getUsernameFromJwtToken(refreshToken);
-        
-        String newAccessToken = jwtUtils.generateTokenFromUsername(email);
+        AuthenticatedUser principal = principalCache.get(rotated.getSubject());
+        String newAccessToken = jwtUtils.generateAccessToken(principal.getId(), principal.getUsername(),
+                principal.getRole(), principal.getTokenVersion());
         
         Map<String, String> responseData = new HashMap<>();
         responseData.put("access_token", newAccessToken);
@@ -184,8 +181,10 @@ public class AuthController {
      * POST /api/auth/logout
      */
     @PostMapping("/logout")
-    public ResponseEntity<ApiResponse<Void>> logout(HttpServletResponse httpResponse) {
-        ApiResponse<Void> response = authService.logout();
+    public ResponseEntity<ApiResponse<Void>> logout(HttpServletRequest request, HttpServletResponse httpResponse) {
+        String authHeader = request.getHeader("Authorization");
+        String accessToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        ApiResponse<Void> response = authService.logout(accessToken, getRefreshTokenCookie(request));
         
         // Clear refresh token cookie
         Cookie refreshTokenCookie = new Cookie("refresh_token", null);
@@ -209,6 +208,9 @@ public class AuthController {
     public ResponseEntity<ApiResponse<Map<String, Object>>> resendVerification(
             @Valid @RequestBody ResendVerificationRequest request) {
 
+        // Per-account limit before touching the database or SendGrid
+        rateLimitService.checkAccount("resend-verification", request.getEmail());
+
         User existingUser = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new ResourceNotFoundException("Tài khoản không tồn tại"));
         
@@ -252,4 +254,31 @@ public class AuthController {
         );
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Set refresh token as httpOnly cookie
+     */
+    private void addRefreshTokenCookie(HttpServletResponse httpResponse, String refreshToken) {
+        Cookie refreshTokenCookie = new Cookie("refresh_token", refreshToken);
+        refreshTokenCookie.setHttpOnly(true);
+        refreshTokenCookie.setSecure(false); // Set to true in production with HTTPS
+        refreshTokenCookie.setPath("/api");
+        refreshTokenCookie.setMaxAge(7 * 24 * 60 * 60); // 7 days in seconds
+        httpResponse.addCookie(refreshTokenCookie);
+    }
+
+    /**
+     * Read refresh token from cookie
+     */
+    private String getRefreshTokenCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if ("refresh_token".equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
 }
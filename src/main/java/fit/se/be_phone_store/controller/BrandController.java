@@ -6,6 +6,8 @@ import fit.se.be_phone_store.dto.response.ApiResponse;
 import fit.se.be_phone_store.dto.response.PagedApiResponse;
 import fit.se.be_phone_store.dto.response.brand.BrandResponse;
 import fit.se.be_phone_store.service.BrandService;
+import fit.se.be_phone_store.service.ReferenceDataService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,7 +16,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -27,6 +28,7 @@ import java.util.Map;
 public class BrandController {
 
     private final BrandService brandService;
+    private final ReferenceDataService referenceDataService;
 
     // ========================================
     // USER APIs
@@ -37,10 +39,9 @@ public class BrandController {
      * GET /api/brands
      */
     @GetMapping("/brands")
-    public ResponseEntity<ApiResponse<List<BrandResponse>>> getBrands() {
+    public ResponseEntity<byte[]> getBrands(HttpServletRequest request) {
         log.info("Getting brands list for user");
-        ApiResponse<List<BrandResponse>> response = brandService.getAllBrands();
-        return ResponseEntity.ok(response);
+        return ReferenceDataResponses.of(referenceDataService.getSnapshot().getBrandsPayload(), request);
     }
 
     /**
@@ -7,6 +7,8 @@ import fit.se.be_phone_store.dto.response.category.CategoryOverviewResponse;
 import fit.se.be_phone_store.dto.response.category.CategoryResponse;
 import fit.se.be_phone_store.dto.response.category.CategoryStatisticsResponse;
 import fit.se.be_phone_store.service.CategoryService;
+import fit.se.be_phone_store.service.ReferenceDataService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +30,7 @@ import java.util.Map;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final ReferenceDataService referenceDataService;
 
     // ========================================
     // USER APIs
@@ -38,11 +41,9 @@ public class CategoryController {
      * GET /api/categories
      */
     @GetMapping("/categories")
-    public ResponseEntity<ApiResponse<List<CategoryResponse>>> getCategories() {
+    public ResponseEntity<byte[]> getCategories(HttpServletRequest request) {
         log.info("Getting categories list for user");
-        ApiResponse<List<CategoryResponse>> response = categoryService.getAllCategories();
-        response.setMessage("Lấy danh sách danh mục thành công");
-        return ResponseEntity.ok(response);
+        return ReferenceDataResponses.of(referenceDataService.getSnapshot().getCategoriesPayload(), request);
     }
 
     /**
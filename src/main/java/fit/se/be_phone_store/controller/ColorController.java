@@ -8,9 +8,11 @@ import fit.se.be_phone_store.dto.response.color.ColorResponse;
 import fit.se.be_phone_store.dto.response.color.ColorStatisticsResponse;
 import fit.se.be_phone_store.dto.response.color.ColorUsageResponse;
 import fit.se.be_phone_store.service.ColorService;
+import fit.se.be_phone_store.service.ReferenceDataService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,7 +22,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -34,6 +35,7 @@ import java.util.Map;
 public class ColorController {
 
     private final ColorService colorService;
+    private final ReferenceDataService referenceDataService;
 
     // ==================== USER APIS ====================
 
@@ -43,10 +45,9 @@ public class ColorController {
      */
     @GetMapping("/colors")
     @Operation(summary = "Get all colors", description = "Lấy danh sách tất cả colors")
-    public ResponseEntity<ApiResponse<List<ColorResponse>>> getAllColors() {
+    public ResponseEntity<byte[]> getAllColors(HttpServletRequest request) {
         log.info("User API: Getting all colors");
-        ApiResponse<List<ColorResponse>> response = colorService.getAllColors();
-        return ResponseEntity.ok(response);
+        return ReferenceDataResponses.of(referenceDataService.getSnapshot().getColorsPayload(), request);
     }
 
     /**
@@ -140,9 +141,13 @@ public class ColorController {
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get color usage", description = "Xem màu sắc đang được sử dụng bởi products nào")
     public ResponseEntity<ApiResponse<ColorUsageResponse>> getColorUsage(
-            @Parameter(description = "Color ID") @PathVariable Long id) {
+            @Parameter(description = "Color ID") @PathVariable Long id,
+            @Parameter(description = "Page number for product lists (starts from 1)")
+            @RequestParam(defaultValue = "1") int page,
+            @Parameter(description = "Products per list")
+            @RequestParam(defaultValue = "50") int limit) {
         log.info("Admin API: Getting color usage for ID: {}", id);
-        ApiResponse<ColorUsageResponse> response = colorService.getColorUsage(id);
+        ApiResponse<ColorUsageResponse> response = colorService.getColorUsage(id, page, limit);
         return ResponseEntity.ok(response);
     }
 
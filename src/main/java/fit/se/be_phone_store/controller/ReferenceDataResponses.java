@@ -0,0 +1,64 @@
+package fit.se.be_phone_store.controller;
+
+import fit.se.be_phone_store.service.ReferenceDataSnapshot;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Reference Data Responses
+ * HTTP side of the pre-serialized category, brand and color list payloads.
+ */
+final class ReferenceDataResponses {
+
+    private ReferenceDataResponses() {
+    }
+
+    /**
+     * Build the response for a request: 304 when If-None-Match matches,
+     * gzip bytes when the client accepts them, plain JSON otherwise
+     */
+    static ResponseEntity<byte[]> of(ReferenceDataSnapshot.Payload payload, HttpServletRequest request) {
+        String etag = payload.getEtag();
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip")) {
+            byte[] gzip = payload.getGzip();
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .contentLength(gzip.length)
+                    .body(gzip);
+        }
+        byte[] json = payload.getJson();
+        return builder.contentLength(json.length).body(json);
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
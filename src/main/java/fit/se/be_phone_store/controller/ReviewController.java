@@ -42,11 +42,12 @@ public class ReviewController {
             @RequestParam(value = "limit", defaultValue = "10") Integer limit,
             @RequestParam(value = "rating", required = false) Integer rating,
             @RequestParam(value = "sort_by", defaultValue = "created_at") String sortBy,
-            @RequestParam(value = "sort_order", defaultValue = "desc") String sortOrder) {
+            @RequestParam(value = "sort_order", defaultValue = "desc") String sortOrder,
+            @RequestParam(value = "cursor", required = false) String cursor) {
         
         log.info("Getting reviews for product: {}", productId);
         ApiResponse<ProductReviewsResponse> response = reviewService.getProductReviews(
-                productId, page, limit, rating, sortBy, sortOrder);
+                productId, page, limit, rating, sortBy, sortOrder, cursor);
         return ResponseEntity.ok(response);
     }
 
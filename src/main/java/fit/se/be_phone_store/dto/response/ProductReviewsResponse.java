@@ -78,6 +78,7 @@ public class ProductReviewsResponse {
         private Integer itemsPerPage;
         private Boolean hasNext;
         private Boolean hasPrev;
+        private String nextCursor; // Pass back as cursor to continue newest-first without offsets
     }
 }
 
@@ -25,6 +25,10 @@ public class Cart {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // Last cart mutation; NULL for carts that predate the column (created_at applies)
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     // Relationships
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -36,5 +40,6 @@ public class Cart {
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
     }
 }
\ No newline at end of file
@@ -11,14 +11,17 @@ import java.math.BigDecimal;
  * CartItem Entity - Matches cart_items table in database
  */
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", uniqueConstraints = {
+        @UniqueConstraint(name = "unique_cart_product_color", columnNames = {"cart_id", "product_id", "color_id"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class CartItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_items_seq")
+    @SequenceGenerator(name = "cart_items_seq", sequenceName = "cart_items_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -44,7 +47,4 @@ public class CartItem {
     public BigDecimal getTotalPrice() {
         return unitPrice.multiply(BigDecimal.valueOf(quantity));
     }
-
-    // Composite unique constraint is handled at database level:
-    // UNIQUE KEY unique_cart_product_color (cart_id, product_id, color_id)
 }
\ No newline at end of file
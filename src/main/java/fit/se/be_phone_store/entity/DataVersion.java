@@ -0,0 +1,26 @@
+package fit.se.be_phone_store.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DataVersion Entity - Named change counters shared between nodes (data_versions table)
+ * Bumped in the transaction that changes the data, so every node can tell with one cheap
+ * read whether its in-memory copy is stale.
+ */
+@Entity
+@Table(name = "data_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DataVersion {
+
+    @Id
+    @Column(name = "name", length = 100)
+    private String name;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
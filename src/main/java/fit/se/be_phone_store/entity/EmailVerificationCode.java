@@ -0,0 +1,35 @@
+package fit.se.be_phone_store.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * EmailVerificationCode Entity - Pending email verification codes (email_verification_codes table)
+ * Used when app.verification.store=database so every node sees the same codes
+ */
+@Entity
+@Table(name = "email_verification_codes", indexes = {
+        @Index(name = "idx_verification_codes_expires_at", columnList = "expiration_time")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailVerificationCode {
+
+    @Id
+    @Column(name = "email", length = 100)
+    private String email;
+
+    @Column(name = "code", nullable = false, length = 10)
+    private String code;
+
+    @Column(name = "expiration_time", nullable = false)
+    private LocalDateTime expirationTime;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+}
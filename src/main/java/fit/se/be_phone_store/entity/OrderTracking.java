@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class OrderTracking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_tracking_seq")
+    @SequenceGenerator(name = "order_tracking_seq", sequenceName = "order_tracking_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "status", nullable = false)
@@ -0,0 +1,36 @@
+package fit.se.be_phone_store.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * PrincipalInvalidation Entity - Users whose cached principal every node must drop (principal_invalidations table)
+ * Written in the transaction that changes the user and pulled by ID like revoked_tokens.
+ * Rows are only needed until every node has synced them.
+ */
+@Entity
+@Table(name = "principal_invalidations", indexes = {
+        @Index(name = "idx_principal_invalidations_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrincipalInvalidation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 50)
+    private String username;
+
+    @Column(length = 100)
+    private String email;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
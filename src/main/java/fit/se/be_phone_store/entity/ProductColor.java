@@ -17,7 +17,8 @@ import lombok.NoArgsConstructor;
 public class ProductColor {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_colors_seq")
+    @SequenceGenerator(name = "product_colors_seq", sequenceName = "product_colors_seq", allocationSize = 50)
     private Long id;
 
     // Relationships
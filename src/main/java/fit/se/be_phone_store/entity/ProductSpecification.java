@@ -4,19 +4,24 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * ProductSpecification Entity - Matches product_specifications table
  */
 @Entity
 @Table(name = "product_specifications")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product_specifications")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductSpecification {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_specifications_seq")
+    @SequenceGenerator(name = "product_specifications_seq", sequenceName = "product_specifications_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "spec_name", nullable = false)
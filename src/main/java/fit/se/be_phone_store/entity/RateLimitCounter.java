@@ -0,0 +1,32 @@
+package fit.se.be_phone_store.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * RateLimitCounter Entity - Fixed-window request counters shared between nodes (rate_limit_counters table)
+ * ID is the bucket key plus the window start
+ */
+@Entity
+@Table(name = "rate_limit_counters", indexes = {
+        @Index(name = "idx_rate_limit_counters_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimitCounter {
+
+    @Id
+    @Column(name = "id", length = 255)
+    private String id;
+
+    @Column(name = "request_count", nullable = false)
+    private Integer requestCount;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
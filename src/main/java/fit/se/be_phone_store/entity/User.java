@@ -15,7 +15,11 @@ import java.util.List;
  * NO LOMBOK DEPENDENCY - EXPLICIT METHODS
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_created_at", columnList = "created_at"),
+        @Index(name = "idx_users_full_name", columnList = "full_name"),
+        @Index(name = "idx_users_role_enabled", columnList = "role, enabled")
+})
 public class User implements UserDetails {
 
     @Id
@@ -58,6 +62,10 @@ public class User implements UserDetails {
     @Column(name = "note", columnDefinition = "TEXT")
     private String note;
 
+    // Bumped on role change or account disable; access tokens carrying an older value are rejected
+    @Column(name = "token_version", columnDefinition = "INT DEFAULT 0")
+    private Integer tokenVersion = 0;
+
     @Transient
     private LocalDateTime lastLoginAt;
 
@@ -176,6 +184,10 @@ public class User implements UserDetails {
         return note;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion != null ? tokenVersion : 0;
+    }
+
     public LocalDateTime getLastLoginAt() {
         return lastLoginAt;
     }
@@ -245,6 +257,17 @@ public class User implements UserDetails {
         this.note = note;
     }
 
+    public void setTokenVersion(Integer tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
+    /**
+     * Invalidate all access tokens issued so far
+     */
+    public void incrementTokenVersion() {
+        this.tokenVersion = getTokenVersion() + 1;
+    }
+
     public void setLastLoginAt(LocalDateTime lastLoginAt) {
         this.lastLoginAt = lastLoginAt;
     }
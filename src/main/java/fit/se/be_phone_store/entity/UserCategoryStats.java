@@ -0,0 +1,38 @@
+package fit.se.be_phone_store.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * UserCategoryStats Entity - Per-user purchase counter by category (user_category_stats table)
+ * One order item counts as one purchase of its product's category
+ */
+@Entity
+@Table(name = "user_category_stats",
+        uniqueConstraints = @UniqueConstraint(name = "unique_user_category", columnNames = {"user_id", "category_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCategoryStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "purchase_count", nullable = false)
+    private Integer purchaseCount = 0;
+
+    public UserCategoryStats(Long userId, Long categoryId, Integer purchaseCount) {
+        this.userId = userId;
+        this.categoryId = categoryId;
+        this.purchaseCount = purchaseCount;
+    }
+}
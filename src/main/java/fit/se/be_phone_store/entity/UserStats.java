@@ -0,0 +1,84 @@
+package fit.se.be_phone_store.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * UserStats Entity - Per-user lifetime counters (user_stats table)
+ * Maintained incrementally by UserStatsService on order and review writes
+ */
+@Entity
+@Table(name = "user_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "total_orders", nullable = false)
+    private Integer totalOrders = 0;
+
+    @Column(name = "pending_orders", nullable = false)
+    private Integer pendingOrders = 0;
+
+    @Column(name = "processing_orders", nullable = false)
+    private Integer processingOrders = 0;
+
+    @Column(name = "shipped_orders", nullable = false)
+    private Integer shippedOrders = 0;
+
+    @Column(name = "delivered_orders", nullable = false)
+    private Integer deliveredOrders = 0;
+
+    @Column(name = "cancelled_orders", nullable = false)
+    private Integer cancelledOrders = 0;
+
+    // Sum of DELIVERED order totals
+    @Column(name = "total_spent", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalSpent = BigDecimal.ZERO;
+
+    @Column(name = "total_reviews", nullable = false)
+    private Integer totalReviews = 0;
+
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public UserStats(Long userId) {
+        this.userId = userId;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Helper methods
+    public void adjustStatusCount(Order.OrderStatus status, int delta) {
+        if (status == null) {
+            return;
+        }
+        switch (status) {
+            case PENDING -> pendingOrders += delta;
+            case PROCESSING -> processingOrders += delta;
+            case SHIPPED -> shippedOrders += delta;
+            case DELIVERED -> deliveredOrders += delta;
+            case CANCELLED -> cancelledOrders += delta;
+        }
+    }
+
+    public double getAverageRating() {
+        return totalReviews > 0 ? (double) ratingSum / totalReviews : 0.0;
+    }
+}
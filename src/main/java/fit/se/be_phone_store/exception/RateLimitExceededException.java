@@ -0,0 +1,32 @@
+package fit.se.be_phone_store.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a client or account exceeds its request rate
+ */
+public class RateLimitExceededException extends BusinessException {
+
+    private static final String ERROR_CODE = "RATE_LIMIT_EXCEEDED";
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public int getStatusCode() {
+        return HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    @Override
+    public String getErrorCode() {
+        return ERROR_CODE;
+    }
+}
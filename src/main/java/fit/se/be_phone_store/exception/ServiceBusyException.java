@@ -0,0 +1,29 @@
+package fit.se.be_phone_store.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a bounded resource (e.g. the password hashing pool) is saturated
+ */
+public class ServiceBusyException extends BusinessException {
+
+    private static final String ERROR_CODE = "SERVICE_BUSY";
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+
+    public ServiceBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    @Override
+    public int getStatusCode() {
+        return HttpStatus.SERVICE_UNAVAILABLE.value();
+    }
+
+    @Override
+    public String getErrorCode() {
+        return ERROR_CODE;
+    }
+}
@@ -1,11 +1,14 @@
 package fit.se.be_phone_store.repository;
 
 import fit.se.be_phone_store.entity.Brand;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +31,16 @@ public interface BrandRepository extends JpaRepository<Brand, Long> {
     @Query("SELECT b FROM Brand b WHERE LOWER(b.name) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Brand> searchByName(@Param("keyword") String keyword);
     
+    // Brands whose name starts with the prefix (served by the unique index on name)
+    Page<Brand> findByNameStartingWith(String prefix, Pageable pageable);
+    
+    // Product counts of the given brands: [brandId, productCount] (brands without products are absent)
+    @Query("SELECT p.brand.id, COUNT(p) FROM Product p WHERE p.brand.id IN :brandIds GROUP BY p.brand.id")
+    List<Object[]> countProductsByBrandIds(@Param("brandIds") Collection<Long> brandIds);
+    
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.brand.id = :brandId")
+    long countProductsByBrandId(@Param("brandId") Long brandId);
+    
     // Find brands with products
     @Query("SELECT DISTINCT b FROM Brand b WHERE b.id IN (SELECT p.brand.id FROM Product p)")
     List<Brand> findBrandsWithProducts();
@@ -5,10 +5,13 @@ import fit.se.be_phone_store.entity.Cart;
 import fit.se.be_phone_store.entity.Product;
 import fit.se.be_phone_store.entity.Color;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,7 +19,7 @@ import java.util.Optional;
  * CartItemRepository interface for CartItem entity operations
  */
 @Repository
-public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+public interface CartItemRepository extends JpaRepository<CartItem, Long>, CartItemRepositoryCustom {
 
     // Find all items in a cart
     List<CartItem> findByCart(Cart cart);
@@ -60,6 +63,13 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Query("SELECT COALESCE(SUM(ci.quantity), 0) FROM CartItem ci WHERE ci.cart.id = :cartId")
     Integer sumQuantityByCartId(@Param("cartId") Long cartId);
     
+    // Cart count summary for a user: [itemCount, totalQuantity, availableCount]
+    @Query("SELECT COUNT(ci.id), COALESCE(SUM(ci.quantity), 0), " +
+           "COALESCE(SUM(CASE WHEN p.isActive = true AND p.stockQuantity >= ci.quantity THEN 1 ELSE 0 END), 0) " +
+           "FROM CartItem ci JOIN ci.product p " +
+           "WHERE ci.cart.user.id = :userId")
+    List<Object[]> getCartCountSummaryByUserId(@Param("userId") Long userId);
+    
     // Calculate total price for cart
     @Query("SELECT COALESCE(SUM(ci.quantity * ci.unitPrice), 0) FROM CartItem ci WHERE ci.cart.id = :cartId")
     Double calculateTotalByCartId(@Param("cartId") Long cartId);
@@ -71,6 +81,50 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
            "WHERE ci.cart.user.id = :userId")
     List<CartItem> findByUserIdWithDetails(@Param("userId") Long userId);
     
+    // Cart read model: [cartItem (with product and color), primaryImageUrl] in one query.
+    // Falls back to the product's first image when none is marked primary.
+    @Query("SELECT ci, COALESCE(" +
+           "(SELECT MIN(pi.imageUrl) FROM ProductImage pi WHERE pi.product.id = p.id AND pi.isPrimary = true), " +
+           "(SELECT fi.imageUrl FROM ProductImage fi WHERE fi.id = " +
+           "(SELECT MIN(mi.id) FROM ProductImage mi WHERE mi.product.id = p.id))) " +
+           "FROM CartItem ci " +
+           "JOIN FETCH ci.product p " +
+           "JOIN FETCH ci.color c " +
+           "WHERE ci.cart.id = :cartId " +
+           "ORDER BY ci.id")
+    List<Object[]> findCartDetailsByCartId(@Param("cartId") Long cartId);
+    
+    // Find items of a cart with product and color in one query (order placement)
+    @Query("SELECT ci FROM CartItem ci " +
+           "JOIN FETCH ci.product p " +
+           "JOIN FETCH ci.color c " +
+           "WHERE ci.cart.id = :cartId " +
+           "ORDER BY ci.id")
+    List<CartItem> findByCartIdWithProductAndColor(@Param("cartId") Long cartId);
+    
+    // Find items by user with their product in one query (cart validation)
+    @Query("SELECT ci FROM CartItem ci " +
+           "JOIN FETCH ci.product p " +
+           "WHERE ci.cart.user.id = :userId " +
+           "ORDER BY ci.id")
+    List<CartItem> findByUserIdWithProduct(@Param("userId") Long userId);
+    
+    // Refresh unit price of the given items to their product's current price in one statement
+    @Modifying
+    @Query("UPDATE CartItem ci SET ci.unitPrice = " +
+           "(SELECT CASE WHEN p.discountPrice IS NOT NULL AND p.discountPrice > 0 " +
+           "THEN p.discountPrice ELSE p.price END " +
+           "FROM Product p WHERE p.id = ci.product.id) " +
+           "WHERE ci.id IN :itemIds")
+    int refreshUnitPrices(@Param("itemIds") Collection<Long> itemIds);
+    
+    // Delete items of the given carts that are still idle (abandoned cart sweeper)
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.cart.id IN " +
+           "(SELECT c.id FROM Cart c WHERE c.id IN :cartIds " +
+           "AND (c.updatedAt < :cutoff OR (c.updatedAt IS NULL AND c.createdAt < :cutoff)))")
+    int deleteByIdleCartIds(@Param("cartIds") Collection<Long> cartIds, @Param("cutoff") LocalDateTime cutoff);
+    
     // Find most popular products in carts
     @Query("SELECT ci.product, SUM(ci.quantity) as totalQuantity " +
            "FROM CartItem ci " +
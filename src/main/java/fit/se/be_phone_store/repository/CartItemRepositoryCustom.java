@@ -0,0 +1,17 @@
+package fit.se.be_phone_store.repository;
+
+import fit.se.be_phone_store.entity.CartItem;
+
+import java.util.List;
+
+/**
+ * CartItemRepositoryCustom - Batch operations on cart_items not expressible as derived queries
+ */
+public interface CartItemRepositoryCustom {
+
+    /**
+     * Insert or update cart lines in one JDBC batch, keyed by unique_cart_product_color.
+     * Existing lines take the given quantity and keep their unit price.
+     */
+    void upsertItems(List<CartItem> items);
+}
@@ -0,0 +1,40 @@
+package fit.se.be_phone_store.repository;
+
+import fit.se.be_phone_store.entity.CartItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * CartItemRepositoryCustomImpl - JDBC implementation of CartItemRepositoryCustom.
+ * Runs on the connection of the surrounding JPA transaction.
+ */
+@RequiredArgsConstructor
+public class CartItemRepositoryCustomImpl implements CartItemRepositoryCustom {
+
+    // Each inserted row takes a whole block of cart_items_seq as its ID, so it can never
+    // collide with the ranges Hibernate's pooled optimizer hands out
+    private static final String UPSERT_SQL =
+            "INSERT INTO cart_items (id, cart_id, product_id, color_id, quantity, unit_price) " +
+            "VALUES (NEXT VALUE FOR cart_items_seq, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void upsertItems(List<CartItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = items.stream()
+                .map(item -> new Object[]{
+                        item.getCart().getId(),
+                        item.getProduct().getId(),
+                        item.getColor().getId(),
+                        item.getQuantity(),
+                        item.getUnitPrice()})
+                .toList();
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+}
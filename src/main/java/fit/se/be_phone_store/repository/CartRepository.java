@@ -2,12 +2,15 @@ package fit.se.be_phone_store.repository;
 
 import fit.se.be_phone_store.entity.Cart;
 import fit.se.be_phone_store.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -53,6 +56,26 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
     @Query("DELETE FROM Cart c WHERE c.createdAt < :date AND c.id NOT IN (SELECT DISTINCT ci.cart.id FROM CartItem ci)")
     void deleteEmptyCartsOlderThan(@Param("date") LocalDateTime date);
     
+    // Record cart activity (drives the abandoned cart sweeper)
+    @Modifying
+    @Query("UPDATE Cart c SET c.updatedAt = :now WHERE c.id = :cartId")
+    int touch(@Param("cartId") Long cartId, @Param("now") LocalDateTime now);
+    
+    // Next keyset chunk of idle carts: [cartId, userId] ordered by ID
+    @Query("SELECT c.id, c.user.id FROM Cart c " +
+           "WHERE c.id > :afterId " +
+           "AND (c.updatedAt < :cutoff OR (c.updatedAt IS NULL AND c.createdAt < :cutoff)) " +
+           "ORDER BY c.id")
+    List<Object[]> findIdleCarts(@Param("afterId") Long afterId, @Param("cutoff") LocalDateTime cutoff,
+                                 Pageable pageable);
+    
+    // Delete the given carts if still idle and already emptied
+    @Modifying
+    @Query("DELETE FROM Cart c WHERE c.id IN :cartIds " +
+           "AND (c.updatedAt < :cutoff OR (c.updatedAt IS NULL AND c.createdAt < :cutoff)) " +
+           "AND NOT EXISTS (SELECT ci.id FROM CartItem ci WHERE ci.cart.id = c.id)")
+    int deleteIdleEmptyCarts(@Param("cartIds") Collection<Long> cartIds, @Param("cutoff") LocalDateTime cutoff);
+    
     // Check if user has cart
     boolean existsByUser(User user);
     
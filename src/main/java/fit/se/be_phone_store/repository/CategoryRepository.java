@@ -34,6 +34,20 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     @Query("SELECT c, SIZE(c.products) FROM Category c")
     List<Object[]> countProductsByCategory();
 
+    // Product counts per category: [categoryId, totalProducts, activeProducts]
+    @Query("SELECT p.category.id, COUNT(p), SUM(CASE WHEN p.isActive = true THEN 1 ELSE 0 END) " +
+            "FROM Product p " +
+            "WHERE p.category IS NOT NULL " +
+            "GROUP BY p.category.id")
+    List<Object[]> getProductCountsByCategory();
+
+    // Product counts of one category: [categoryId, totalProducts, activeProducts]
+    @Query("SELECT p.category.id, COUNT(p), SUM(CASE WHEN p.isActive = true THEN 1 ELSE 0 END) " +
+            "FROM Product p " +
+            "WHERE p.category.id = :categoryId " +
+            "GROUP BY p.category.id")
+    List<Object[]> getProductCountsByCategoryId(@Param("categoryId") Long categoryId);
+
     // Count active products in each category
     @Query("SELECT c.id, c.name, COUNT(p) as productCount " +
             "FROM Category c LEFT JOIN c.products p " +
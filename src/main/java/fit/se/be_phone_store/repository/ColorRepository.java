@@ -48,6 +48,13 @@ public interface ColorRepository extends JpaRepository<Color, Long> {
     @Query("SELECT c, COUNT(p) FROM Color c LEFT JOIN c.products p GROUP BY c ORDER BY COUNT(p) DESC")
     List<Object[]> countProductsByColor();
 
+    // Usage per color in one statement: [id, colorName, hexCode, defaultProductCount, variantCount]
+    @Query("SELECT c.id, c.colorName, c.hexCode, " +
+           "(SELECT COUNT(p.id) FROM Product p WHERE p.color.id = c.id), " +
+           "(SELECT COUNT(pc.id) FROM ProductColor pc WHERE pc.color.id = c.id) " +
+           "FROM Color c")
+    List<Object[]> getColorUsageCounts();
+
     // Find popular colors (used in most products)
     @Query("SELECT c FROM Color c JOIN c.products p GROUP BY c ORDER BY COUNT(p) DESC")
     List<Color> findPopularColors();
@@ -0,0 +1,29 @@
+package fit.se.be_phone_store.repository;
+
+import fit.se.be_phone_store.entity.DataVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * DataVersionRepository interface for DataVersion entity operations
+ */
+@Repository
+public interface DataVersionRepository extends JpaRepository<DataVersion, String> {
+
+    @Query("SELECT v.version FROM DataVersion v WHERE v.name = :name")
+    Optional<Long> findVersion(@Param("name") String name);
+
+    @Modifying
+    @Query("UPDATE DataVersion v SET v.version = v.version + 1 WHERE v.name = :name")
+    int increment(@Param("name") String name);
+
+    // Create the counter at its first change if no node has created it yet
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO data_versions (name, version) VALUES (:name, 1)", nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name);
+}
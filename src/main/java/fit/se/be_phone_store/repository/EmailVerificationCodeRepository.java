@@ -0,0 +1,32 @@
+package fit.se.be_phone_store.repository;
+
+import fit.se.be_phone_store.entity.EmailVerificationCode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * EmailVerificationCodeRepository interface for EmailVerificationCode entity operations
+ */
+@Repository
+public interface EmailVerificationCodeRepository extends JpaRepository<EmailVerificationCode, String> {
+
+    // Atomic increment so concurrent guesses on different nodes are all counted
+    @Modifying
+    @Query("UPDATE EmailVerificationCode c SET c.attempts = c.attempts + 1 WHERE c.email = :email")
+    int incrementAttempts(@Param("email") String email);
+
+    @Query("SELECT c.attempts FROM EmailVerificationCode c WHERE c.email = :email")
+    Integer findAttemptsByEmail(@Param("email") String email);
+
+    @Query("SELECT COUNT(c) FROM EmailVerificationCode c WHERE c.expirationTime > :now")
+    long countPending(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM EmailVerificationCode c WHERE c.expirationTime <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -3,12 +3,14 @@ package fit.se.be_phone_store.repository;
 import fit.se.be_phone_store.entity.OrderItem;
 import fit.se.be_phone_store.entity.Order;
 import fit.se.be_phone_store.entity.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -19,6 +21,20 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     // Find all items in an order
     List<OrderItem> findByOrder(Order order);
+
+    // Items of one order with product and color (order detail)
+    @Query("SELECT oi FROM OrderItem oi JOIN FETCH oi.product LEFT JOIN FETCH oi.color " +
+           "WHERE oi.order.id = :orderId ORDER BY oi.id")
+    List<OrderItem> findByOrderIdWithProductAndColor(@Param("orderId") Long orderId);
+
+    // Items of several orders with product (order list previews)
+    @Query("SELECT oi FROM OrderItem oi JOIN FETCH oi.product " +
+           "WHERE oi.order.id IN :orderIds ORDER BY oi.id")
+    List<OrderItem> findByOrderIdsWithProduct(@Param("orderIds") Collection<Long> orderIds);
+
+    // Item count per order: [orderId, count]
+    @Query("SELECT oi.order.id, COUNT(oi) FROM OrderItem oi WHERE oi.order.id IN :orderIds GROUP BY oi.order.id")
+    List<Object[]> countItemsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
     
     List<OrderItem> findByOrderId(Long orderId);
     
@@ -153,6 +169,33 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
            "WHERE oi.product.id = :productId AND o.user.id = :userId AND o.status = 'DELIVERED'")
     LocalDateTime findFirstPurchaseDate(@Param("userId") Long userId, @Param("productId") Long productId);
 
+    // First delivered purchase per (user, product) among the given users and products:
+    // [userId, productId, firstPurchaseDate]
+    @Query("SELECT o.user.id, oi.product.id, MIN(COALESCE(o.updatedAt, o.createdAt)) FROM OrderItem oi " +
+           "JOIN oi.order o " +
+           "WHERE o.user.id IN :userIds AND oi.product.id IN :productIds AND o.status = 'DELIVERED' " +
+           "GROUP BY o.user.id, oi.product.id")
+    List<Object[]> findFirstPurchaseDates(@Param("userIds") Collection<Long> userIds,
+                                          @Param("productIds") Collection<Long> productIds);
+
+    // Purchased item count per category for one user: [categoryId, itemCount]
+    @Query("SELECT p.category.id, COUNT(oi) " +
+           "FROM OrderItem oi " +
+           "JOIN oi.product p " +
+           "WHERE oi.order.user.id = :userId AND p.category IS NOT NULL " +
+           "GROUP BY p.category.id")
+    List<Object[]> countItemsByCategoryForUser(@Param("userId") Long userId);
+
+    // Most purchased categories of one user: [categoryName, itemCount]
+    @Query("SELECT c.name, COUNT(oi) " +
+           "FROM OrderItem oi " +
+           "JOIN oi.product p " +
+           "JOIN p.category c " +
+           "WHERE oi.order.user.id = :userId " +
+           "GROUP BY c.id, c.name " +
+           "ORDER BY COUNT(oi) DESC")
+    List<Object[]> findTopCategoriesForUser(@Param("userId") Long userId, Pageable pageable);
+
     @Query("SELECT oi.product.category.name, SUM(oi.quantity * oi.unitPrice) as revenue " +
            "FROM OrderItem oi " +
            "JOIN oi.order o " +
@@ -4,6 +4,7 @@ import fit.se.be_phone_store.entity.Order;
 import fit.se.be_phone_store.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -22,6 +23,10 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     // Find by order number
     Optional<Order> findByOrderNumber(String orderNumber);
+
+    // Find by order number with the customer (order detail)
+    @EntityGraph(attributePaths = {"user"})
+    Optional<Order> findWithUserByOrderNumber(String orderNumber);
     
     // Find orders by user
     List<Order> findByUser(User user);
@@ -30,6 +35,9 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     Page<Order> findByUserId(Long userId, Pageable pageable);
     
+    // Most recent orders of a user
+    List<Order> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
+    
     // Find orders by status
     List<Order> findByStatus(Order.OrderStatus status);
     
@@ -127,6 +135,10 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
         @Param("endDate") LocalDateTime endDate
     );
     
+    // Order count and amount per status for one user: [status, count, totalAmount]
+    @Query("SELECT o.status, COUNT(o), COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE o.user.id = :userId GROUP BY o.status")
+    List<Object[]> getOrderTotalsByStatusForUser(@Param("userId") Long userId);
+    
     // Orders by status count
     @Query("SELECT o.status, COUNT(o) FROM Order o GROUP BY o.status")
     List<Object[]> countOrdersByStatus();
@@ -209,7 +221,8 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.status = 'PROCESSING' AND o.createdAt < :date")
     List<Order> findOrdersNeedingShippingUpdate(@Param("date") LocalDateTime date);
     
-    // Find orders with filters (Admin)
+    // Find orders with filters (Admin), customers fetched with the page
+    @EntityGraph(attributePaths = {"user"})
     @Query("""
         SELECT o FROM Order o
         WHERE (:status IS NULL OR o.status = :status)
@@ -0,0 +1,27 @@
+package fit.se.be_phone_store.repository;
+
+import fit.se.be_phone_store.entity.PrincipalInvalidation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * PrincipalInvalidationRepository interface for PrincipalInvalidation entity operations
+ */
+@Repository
+public interface PrincipalInvalidationRepository extends JpaRepository<PrincipalInvalidation, Long> {
+
+    // Next page of invalidations in ID order
+    @Query("SELECT i FROM PrincipalInvalidation i WHERE i.id > :afterId ORDER BY i.id")
+    List<PrincipalInvalidation> findAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM PrincipalInvalidation i WHERE i.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
@@ -3,11 +3,16 @@ package fit.se.be_phone_store.repository;
 import fit.se.be_phone_store.entity.ProductColor;
 import fit.se.be_phone_store.entity.Product;
 import fit.se.be_phone_store.entity.Color;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,14 +49,31 @@ public interface ProductColorRepository extends JpaRepository<ProductColor, Long
     
     void deleteByProductId(Long productId);
     
+    // Existing [productId, colorId] pairs among the given products and colors
+    @Query("SELECT pc.product.id, pc.color.id FROM ProductColor pc " +
+           "WHERE pc.product.id IN :productIds AND pc.color.id IN :colorIds")
+    List<Object[]> findPairsByProductIdsAndColorIds(@Param("productIds") Collection<Long> productIds,
+                                                    @Param("colorIds") Collection<Long> colorIds);
+    
     // Get available colors for specific product (returns Color entities)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT pc.color FROM ProductColor pc WHERE pc.product.id = :productId")
     List<Color> findColorsByProductId(@Param("productId") Long productId);
+
+    // Get available color IDs for specific product (names are resolved from reference data)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT pc.color.id FROM ProductColor pc WHERE pc.product.id = :productId ORDER BY pc.id")
+    List<Long> findColorIdsByProductId(@Param("productId") Long productId);
     
     // Get products available in specific color
     @Query("SELECT pc.product FROM ProductColor pc WHERE pc.color.id = :colorId AND pc.product.isActive = true")
     List<Product> findProductsByColorId(@Param("colorId") Long colorId);
     
+    // Products offering a color as variant: [id, name, slug]
+    @Query("SELECT pc.product.id, pc.product.name, pc.product.slug FROM ProductColor pc " +
+           "WHERE pc.color.id = :colorId ORDER BY pc.product.id")
+    List<Object[]> findProductSummariesByColorId(@Param("colorId") Long colorId, Pageable pageable);
+    
     // Count available colors for product
     @Query("SELECT COUNT(pc) FROM ProductColor pc WHERE pc.product.id = :productId")
     long countColorsByProductId(@Param("productId") Long productId);
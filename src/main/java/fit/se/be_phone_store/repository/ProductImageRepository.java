@@ -2,11 +2,15 @@ package fit.se.be_phone_store.repository;
 
 import fit.se.be_phone_store.entity.Product;
 import fit.se.be_phone_store.entity.ProductImage;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,11 +27,18 @@ public interface ProductImageRepository extends JpaRepository<ProductImage, Long
     List<ProductImage> findByProductId(Long productId);
 
     // Find images ordered by primary status (primary first)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<ProductImage> findByProductIdOrderByIsPrimaryDesc(Long productId);
 
     // Find single primary image (Optional)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<ProductImage> findByProductIdAndIsPrimaryTrue(Long productId);
 
+    // Primary image URL per product: [productId, imageUrl] (product card lists)
+    @Query("SELECT pi.product.id, pi.imageUrl FROM ProductImage pi " +
+           "WHERE pi.product.id IN :productIds AND pi.isPrimary = true")
+    List<Object[]> findPrimaryImageUrlsByProductIds(@Param("productIds") Collection<Long> productIds);
+
     // Check if product has images
     boolean existsByProductId(Long productId);
 
@@ -37,6 +48,7 @@ public interface ProductImageRepository extends JpaRepository<ProductImage, Long
     // Delete all images for a product
     void deleteByProductId(Long productId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("""
         SELECT pi.imageUrl FROM ProductImage pi
         WHERE pi.product.id = :productId
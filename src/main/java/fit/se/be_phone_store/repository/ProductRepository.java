@@ -191,4 +191,10 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     @Query("SELECT COUNT(p) > 0 FROM Product p WHERE p.color.id = :colorId")
     boolean existsByColorId(@Param("colorId") Long colorId);
+
+    long countByColorId(Long colorId);
+
+    // Products using a color as default: [id, name, slug]
+    @Query("SELECT p.id, p.name, p.slug FROM Product p WHERE p.color.id = :colorId ORDER BY p.id")
+    List<Object[]> findSummariesByColorId(@Param("colorId") Long colorId, Pageable pageable);
 }
@@ -2,8 +2,11 @@ package fit.se.be_phone_store.repository;
 
 import fit.se.be_phone_store.entity.ProductSpecification;
 import fit.se.be_phone_store.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -19,6 +22,7 @@ public interface ProductSpecificationRepository extends JpaRepository<ProductSpe
     // Find all specifications for a product
     List<ProductSpecification> findByProduct(Product product);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<ProductSpecification> findByProductId(Long productId);
     
     // Find specifications by name
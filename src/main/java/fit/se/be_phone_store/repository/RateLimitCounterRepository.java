@@ -0,0 +1,30 @@
+package fit.se.be_phone_store.repository;
+
+import fit.se.be_phone_store.entity.RateLimitCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * RateLimitCounterRepository interface for RateLimitCounter entity operations
+ */
+@Repository
+public interface RateLimitCounterRepository extends JpaRepository<RateLimitCounter, String> {
+
+    // Single-statement upsert so concurrent nodes never lose an increment
+    @Modifying
+    @Query(value = "INSERT INTO rate_limit_counters (id, request_count, expires_at) VALUES (:id, 1, :expiresAt) " +
+                   "ON DUPLICATE KEY UPDATE request_count = request_count + 1", nativeQuery = true)
+    int increment(@Param("id") String id, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Query("SELECT c.requestCount FROM RateLimitCounter c WHERE c.id = :id")
+    Integer findCountById(@Param("id") String id);
+
+    @Modifying
+    @Query("DELETE FROM RateLimitCounter c WHERE c.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,29 @@
+package fit.se.be_phone_store.repository;
+
+import fit.se.be_phone_store.entity.RefreshTokenFamily;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * RefreshTokenFamilyRepository interface for RefreshTokenFamily entity operations
+ */
+@Repository
+public interface RefreshTokenFamilyRepository extends JpaRepository<RefreshTokenFamily, String> {
+
+    // Lock the family row while rotating its token
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM RefreshTokenFamily f WHERE f.familyId = :familyId")
+    Optional<RefreshTokenFamily> findByFamilyIdForUpdate(@Param("familyId") String familyId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshTokenFamily f WHERE f.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -13,6 +13,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,6 +31,24 @@ public interface ReviewRepository extends JpaRepository<Review, Long>, JpaSpecif
     @EntityGraph(attributePaths = {"user"})
     Page<Review> findByProductId(Long productId, Pageable pageable);
     
+    // Page of a product's reviews with users, without a count query (totals come from the rating summary)
+    @Query("SELECT r FROM Review r JOIN FETCH r.user " +
+           "WHERE r.product.id = :productId AND (:rating IS NULL OR r.rating = :rating)")
+    List<Review> findPageByProductIdWithUser(@Param("productId") Long productId,
+                                             @Param("rating") Integer rating,
+                                             Pageable pageable);
+    
+    // Keyset page of a product's reviews with users, newest first, after the (createdAt, id) cursor
+    @Query("SELECT r FROM Review r JOIN FETCH r.user " +
+           "WHERE r.product.id = :productId AND (:rating IS NULL OR r.rating = :rating) " +
+           "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Review> findByProductIdWithUserBefore(@Param("productId") Long productId,
+                                               @Param("rating") Integer rating,
+                                               @Param("createdAt") LocalDateTime createdAt,
+                                               @Param("id") Long id,
+                                               Pageable pageable);
+    
     // Find reviews by product with eager loading of user
     @Query("SELECT r FROM Review r JOIN FETCH r.user WHERE r.product.id = :productId")
     List<Review> findByProductIdWithUser(@Param("productId") Long productId);
@@ -47,11 +66,21 @@ public interface ReviewRepository extends JpaRepository<Review, Long>, JpaSpecif
     @Query("SELECT r FROM Review r JOIN FETCH r.product WHERE r.user.id = :userId")
     List<Review> findByUserIdWithProduct(@Param("userId") Long userId);
     
+    // Most recent reviews of a user with product loaded
+    @Query("SELECT r FROM Review r JOIN FETCH r.product WHERE r.user.id = :userId ORDER BY r.createdAt DESC")
+    List<Review> findRecentByUserIdWithProduct(@Param("userId") Long userId, Pageable pageable);
+    
+    // Review count and rating sum for one user: [count, ratingSum]
+    @Query("SELECT COUNT(r), COALESCE(SUM(r.rating), 0) FROM Review r WHERE r.user.id = :userId")
+    List<Object[]> getReviewTotalsByUserId(@Param("userId") Long userId);
+    
     // Find specific user review for product
     Optional<Review> findByUserAndProduct(User user, Product product);
     
     Optional<Review> findByUserIdAndProductId(Long userId, Long productId);
     
+    List<Review> findByUserIdAndProductIdIn(Long userId, Collection<Long> productIds);
+    
     // Check if user has reviewed product
     boolean existsByUserAndProduct(User user, Product product);
     
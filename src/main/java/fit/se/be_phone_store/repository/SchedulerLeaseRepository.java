@@ -0,0 +1,35 @@
+package fit.se.be_phone_store.repository;
+
+import fit.se.be_phone_store.entity.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * SchedulerLeaseRepository interface for SchedulerLease entity operations
+ */
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    // Create the lease row if no node has ever held it
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO scheduler_leases (name, owner, expires_at) VALUES (:name, :owner, :expiresAt)",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name, @Param("owner") String owner,
+                       @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Take over an expired lease, or extend one we already hold
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.owner = :owner, l.expiresAt = :expiresAt " +
+           "WHERE l.name = :name AND (l.owner = :owner OR l.expiresAt < :now)")
+    int takeOver(@Param("name") String name, @Param("owner") String owner,
+                 @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.expiresAt = :now WHERE l.name = :name AND l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
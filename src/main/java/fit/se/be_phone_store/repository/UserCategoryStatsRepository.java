@@ -0,0 +1,34 @@
+package fit.se.be_phone_store.repository;
+
+import fit.se.be_phone_store.entity.UserCategoryStats;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * UserCategoryStatsRepository interface for UserCategoryStats entity operations
+ */
+@Repository
+public interface UserCategoryStatsRepository extends JpaRepository<UserCategoryStats, Long> {
+
+    List<UserCategoryStats> findByUserIdAndCategoryIdIn(Long userId, Collection<Long> categoryIds);
+
+    // Most purchased categories of a user: [categoryName, purchaseCount]
+    @Query("""
+        SELECT c.name, s.purchaseCount
+        FROM UserCategoryStats s, Category c
+        WHERE c.id = s.categoryId AND s.userId = :userId
+        ORDER BY s.purchaseCount DESC
+        """)
+    List<Object[]> findTopCategoriesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM UserCategoryStats s WHERE s.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
@@ -1,12 +1,15 @@
 package fit.se.be_phone_store.repository;
 
 import fit.se.be_phone_store.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -67,6 +70,45 @@ public interface UserRepository extends JpaRepository<User, Long> {
         @Param("toDate") java.time.LocalDateTime toDate
     );
     
+    // Find users with filters (Admin) - sorted and paged in the database
+    @Query(value = """
+        SELECT u FROM User u
+        WHERE (:role IS NULL OR u.role = :role)
+          AND (:enabled IS NULL OR u.enabled = :enabled)
+          AND (:fromDate IS NULL OR u.createdAt >= :fromDate)
+          AND (:toDate IS NULL OR u.createdAt <= :toDate)
+        """,
+        countQuery = """
+        SELECT COUNT(u) FROM User u
+        WHERE (:role IS NULL OR u.role = :role)
+          AND (:enabled IS NULL OR u.enabled = :enabled)
+          AND (:fromDate IS NULL OR u.createdAt >= :fromDate)
+          AND (:toDate IS NULL OR u.createdAt <= :toDate)
+        """)
+    Page<User> findUsersWithFilters(
+        @Param("role") User.Role role,
+        @Param("enabled") Boolean enabled,
+        @Param("fromDate") LocalDateTime fromDate,
+        @Param("toDate") LocalDateTime toDate,
+        Pageable pageable
+    );
+    
+    // Order count and delivered spend for a page of users: [userId, orderCount, totalSpent]
+    @Query("""
+        SELECT u.id,
+               COUNT(o.id),
+               COALESCE(SUM(CASE WHEN o.status = 'DELIVERED' THEN o.totalAmount ELSE 0 END), 0)
+        FROM User u
+        LEFT JOIN Order o ON o.user = u
+        WHERE u.id IN :userIds
+        GROUP BY u.id
+        """)
+    List<Object[]> getOrderTotalsByUserIds(@Param("userIds") Collection<Long> userIds);
+    
+    // User counters grouped by role and enabled flag: [role, enabled, count]
+    @Query("SELECT u.role, u.enabled, COUNT(u) FROM User u GROUP BY u.role, u.enabled")
+    List<Object[]> countUsersByRoleAndEnabled();
+    
     long countByEnabled(Boolean enabled);
     
     // Count users by date range
@@ -0,0 +1,32 @@
+package fit.se.be_phone_store.repository;
+
+import fit.se.be_phone_store.entity.UserStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * UserStatsRepository interface for UserStats entity operations
+ */
+@Repository
+public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
+
+    // Lock the counter row while applying a delta
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UserStats s WHERE s.userId = :userId")
+    Optional<UserStats> findByUserIdForUpdate(@Param("userId") Long userId);
+
+    // Create an empty counter row; returns 0 if another transaction created it first
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_stats (user_id, total_orders, pending_orders, processing_orders, " +
+                   "shipped_orders, delivered_orders, cancelled_orders, total_spent, total_reviews, rating_sum, updated_at) " +
+                   "VALUES (:userId, 0, 0, 0, 0, 0, 0, 0, 0, 0, :now)", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+}
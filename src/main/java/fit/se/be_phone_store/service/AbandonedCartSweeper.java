@@ -0,0 +1,101 @@
+package fit.se.be_phone_store.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Abandoned Cart Sweeper
+ * Periodically removes carts (and their items) idle for longer than app.cart.sweeper.idle-days.
+ * Work is done in keyset-ordered chunks with one short transaction each, and a database lease
+ * keeps the sweep on a single node.
+ */
+@Component
+@Slf4j
+public class AbandonedCartSweeper {
+
+    private static final String LEASE_NAME = "abandoned-cart-sweeper";
+
+    private final CartPurgeService cartPurgeService;
+    private final SchedulerLeaseService schedulerLeaseService;
+    private final boolean enabled;
+    private final int idleDays;
+    private final int chunkSize;
+    private final Duration leaseDuration;
+    private final Counter cartsRemovedCounter;
+    private final Counter itemsRemovedCounter;
+    private final Timer sweepTimer;
+
+    public AbandonedCartSweeper(CartPurgeService cartPurgeService,
+                                SchedulerLeaseService schedulerLeaseService,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.cart.sweeper.enabled:true}") boolean enabled,
+                                @Value("${app.cart.sweeper.idle-days:30}") int idleDays,
+                                @Value("${app.cart.sweeper.chunk-size:500}") int chunkSize,
+                                @Value("${app.cart.sweeper.lease-seconds:600}") long leaseSeconds) {
+        this.cartPurgeService = cartPurgeService;
+        this.schedulerLeaseService = schedulerLeaseService;
+        this.enabled = enabled;
+        this.idleDays = idleDays;
+        this.chunkSize = chunkSize;
+        this.leaseDuration = Duration.ofSeconds(leaseSeconds);
+
+        this.cartsRemovedCounter = Counter.builder("cart.sweeper.rows.removed").tag("table", "cart")
+                .description("Rows removed by the abandoned cart sweeper").register(meterRegistry);
+        this.itemsRemovedCounter = Counter.builder("cart.sweeper.rows.removed").tag("table", "cart_items")
+                .description("Rows removed by the abandoned cart sweeper").register(meterRegistry);
+        this.sweepTimer = Timer.builder("cart.sweeper.duration")
+                .description("Duration of abandoned cart sweeps").register(meterRegistry);
+    }
+
+    /**
+     * Sweep idle carts if this node wins the lease
+     */
+    @Scheduled(initialDelayString = "${app.cart.sweeper.initial-delay-ms:60000}",
+               fixedDelayString = "${app.cart.sweeper.interval-ms:3600000}")
+    public void sweep() {
+        if (!enabled || !schedulerLeaseService.tryAcquire(LEASE_NAME, leaseDuration)) {
+            return;
+        }
+
+        try {
+            sweepTimer.record(this::sweepChunks);
+        } catch (RuntimeException e) {
+            log.error("Abandoned cart sweep failed: {}", e.getMessage());
+        } finally {
+            schedulerLeaseService.release(LEASE_NAME);
+        }
+    }
+
+    private void sweepChunks() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(idleDays);
+        Long afterId = 0L;
+        int cartsRemoved = 0;
+        int itemsRemoved = 0;
+
+        while (true) {
+            CartPurgeService.PurgeChunk chunk = cartPurgeService.purgeChunk(afterId, cutoff, chunkSize);
+            cartsRemoved += chunk.getCartsRemoved();
+            itemsRemoved += chunk.getItemsRemoved();
+            cartsRemovedCounter.increment(chunk.getCartsRemoved());
+            itemsRemovedCounter.increment(chunk.getItemsRemoved());
+
+            // Stop when the keyset is exhausted or another node took over an expired lease
+            if (chunk.getScanned() < chunkSize || !schedulerLeaseService.tryAcquire(LEASE_NAME, leaseDuration)) {
+                break;
+            }
+            afterId = chunk.getLastId();
+        }
+
+        if (cartsRemoved > 0) {
+            log.info("Removed {} abandoned carts and {} cart items idle since {}", cartsRemoved, itemsRemoved, cutoff);
+        }
+    }
+}
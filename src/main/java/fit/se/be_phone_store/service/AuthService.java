@@ -7,8 +7,11 @@ import fit.se.be_phone_store.dto.request.RegisterRequest;
 import fit.se.be_phone_store.dto.response.ApiResponse;
 import fit.se.be_phone_store.dto.response.LoginResponse;
 import fit.se.be_phone_store.exception.AuthenticationException;
+import fit.se.be_phone_store.exception.ServiceBusyException;
 import fit.se.be_phone_store.exception.UserAlreadyExistsException;
+import fit.se.be_phone_store.util.AuthenticatedUser;
 import fit.se.be_phone_store.util.JwtUtils;
+import fit.se.be_phone_store.util.PrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -17,6 +20,8 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -30,6 +35,9 @@ import java.util.Map;
 @Transactional
 public class AuthService {
 
+    private static final String CURRENT_USER_ATTRIBUTE = AuthService.class.getName() + ".CURRENT_USER";
+    private static final String ROLE_ADMIN = "ROLE_" + User.Role.ADMIN.name();
+
     @Autowired
     private UserRepository userRepository;
 
@@ -45,6 +53,18 @@ public class AuthService {
     @Autowired
     private EmailVerificationService emailVerificationService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RateLimitService rateLimitService;
+
     /**
      * Register new user
      * @param request Registration request data
@@ -100,6 +120,9 @@ public class AuthService {
     public ApiResponse<Map<String, Object>> login(LoginRequest request) {
         System.out.println("Attempting login for email: " + request.getEmail());
 
+        // Per-account limit before any password hashing
+        rateLimitService.checkAccount("login", request.getEmail());
+
         try {
             // Get user by email first
             User user = userRepository.findByEmail(request.getEmail())
@@ -124,7 +147,7 @@ public class AuthService {
             String accessToken = jwtUtils.generateJwtToken(authentication);
 
             // Generate refresh token
-            String refreshToken = jwtUtils.generateRefreshToken(user.getEmail());
+            String refreshToken = refreshTokenService.issue(user);
 
             // Update last login time
             user.setLastLoginAt(LocalDateTime.now());
@@ -154,7 +177,7 @@ public class AuthService {
             
             return ApiResponse.success("Đăng nhập thành công", responseData);
 
-        } catch (AuthenticationException e) {
+        } catch (AuthenticationException | ServiceBusyException e) {
             throw e;
         } catch (Exception e) {
             System.err.println("Login failed for email: " + request.getEmail() + " - " + e.getMessage());
@@ -174,8 +197,30 @@ public class AuthService {
         }
 
         String username = authentication.getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new AuthenticationException("User not found"));
+
+        // Memoize per request so repeated lookups in one request hit the database once
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            Object cached = requestAttributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (cached instanceof User && username.equals(((User) cached).getUsername())) {
+                return (User) cached;
+            }
+        }
+
+        User user;
+        if (authentication.getPrincipal() instanceof AuthenticatedUser) {
+            Long userId = ((AuthenticatedUser) authentication.getPrincipal()).getId();
+            user = userRepository.findById(userId)
+                    .orElseThrow(() -> new AuthenticationException("User not found"));
+        } else {
+            user = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new AuthenticationException("User not found"));
+        }
+
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
     }
 
     /**
@@ -184,21 +229,37 @@ public class AuthService {
      */
     @Transactional(readOnly = true)
     public Long getCurrentUserId() {
+        AuthenticatedUser principal = getAuthenticatedPrincipal();
+        if (principal != null) {
+            return principal.getId();
+        }
         return getCurrentUser().getId();
     }
 
+    /**
+     * Get current user ID for endpoints that also serve anonymous requests
+     * Never throws, so it cannot mark a surrounding transaction rollback-only
+     * @return Current user ID, or null when the request carries no valid token
+     */
+    @Transactional(readOnly = true)
+    public Long findCurrentUserId() {
+        AuthenticatedUser principal = getAuthenticatedPrincipal();
+        return principal != null ? principal.getId() : null;
+    }
+
     /**
      * Check if current user is admin
      * @return true if current user is admin
      */
     @Transactional(readOnly = true)
     public boolean isCurrentUserAdmin() {
-        try {
-            User currentUser = getCurrentUser();
-            return currentUser.getRole() == User.Role.ADMIN;
-        } catch (Exception e) {
+        // Authorities come from the verified token role claim, so no user query is needed
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
             return false;
         }
+        return authentication.getAuthorities().stream()
+                .anyMatch(authority -> ROLE_ADMIN.equals(authority.getAuthority()));
     }
 
     /**
@@ -209,15 +270,24 @@ public class AuthService {
     @Transactional(readOnly = true)
     public boolean canAccessResource(Long resourceUserId) {
         try {
-            User currentUser = getCurrentUser();
             // Admin can access all resources, users can only access their own
-            return currentUser.getRole() == User.Role.ADMIN ||
-                    currentUser.getId().equals(resourceUserId);
+            return isCurrentUserAdmin() || getCurrentUserId().equals(resourceUserId);
         } catch (Exception e) {
             return false;
         }
     }
 
+    /**
+     * Get the cached principal snapshot set by JwtAuthenticationFilter, if any
+     */
+    private AuthenticatedUser getAuthenticatedPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser) {
+            return (AuthenticatedUser) authentication.getPrincipal();
+        }
+        return null;
+    }
+
     /**
      * Change user password
      * @param currentPassword Current password
@@ -240,6 +310,7 @@ public class AuthService {
         // Update password
         currentUser.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(currentUser);
+        principalCache.evict(currentUser);
 
         Map<String, Object> responseData = new HashMap<>();
         responseData.put("changed_at", LocalDateTime.now());
@@ -252,47 +323,20 @@ public class AuthService {
      * Logout user (invalidate token on client side)
      * @return API response
      */
-    public ApiResponse<Void> logout() {
+    public ApiResponse<Void> logout(String accessToken, String refreshToken) {
         User currentUser = getCurrentUser();
         System.out.println("User logged out: " + currentUser.getUsername());
 
+        // Revoke the access token until it expires and end the refresh token family
+        if (accessToken != null) {
+            jwtUtils.verifyJwtToken(accessToken)
+                    .ifPresent(token -> tokenRevocationService.revoke(token.getTokenId(), token.getExpiresAtMillis()));
+        }
+        refreshTokenService.revoke(refreshToken);
+
         // Clear security context
         SecurityContextHolder.clearContext();
 
         return ApiResponse.success("Logout successful");
     }
-
-    /**
-     * Refresh JWT token
-     * @param token Current token
-     * @return API response with new token
-     */
-    public ApiResponse<Map<String, String>> refreshToken(String token) {
-        try {
-            // Validate current token
-            if (!jwtUtils.validateJwtToken(token)) {
-                throw new AuthenticationException("Invalid token");
-            }
-
-            // Get username from token
-            String username = jwtUtils.getUsernameFromJwtToken(token);
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new AuthenticationException("User not found"));
-
-            // Generate new token
-            Authentication authentication = new UsernamePasswordAuthenticationToken(
-                    user, null, user.getAuthorities());
-            String newToken = jwtUtils.generateJwtToken(authentication);
-
-            Map<String, String> responseData = new HashMap<>();
-            responseData.put("token", newToken);
-            responseData.put("type", "Bearer");
-
-            return ApiResponse.success("Token refreshed successfully", responseData);
-
-        } catch (Exception e) {
-            System.err.println("Token refresh failed: " + e.getMessage());
-            throw new AuthenticationException("Token refresh failed");
-        }
-    }
 }
\ No newline at end of file
@@ -11,12 +11,15 @@ import fit.se.be_phone_store.exception.ResourceNotFoundException;
 import fit.se.be_phone_store.repository.BrandRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -31,6 +34,7 @@ import java.util.stream.Collectors;
 public class BrandService {
 
     private final BrandRepository brandRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Get all brands (User API)
@@ -77,29 +81,24 @@ public class BrandService {
         Sort sort = buildSort(sortBy, sortOrder);
         Pageable pageable = PageRequest.of(page - 1, limit, sort); // Convert 1-based to 0-based
 
-        List<Brand> brands;
-        long totalElements;
-
-        if (search != null && !search.trim().isEmpty()) {
-            brands = brandRepository.searchByName(search.trim());
-            totalElements = brands.size();
-
-            // Manual pagination for search results
-            int start = Math.min((page - 1) * limit, brands.size());
-            int end = Math.min(start + limit, brands.size());
-            brands = brands.subList(start, end);
-        } else {
-            brands = brandRepository.findAll(sort);
-            totalElements = brands.size();
-
-            // Manual pagination for all results
-            int start = Math.min((page - 1) * limit, brands.size());
-            int end = Math.min(start + limit, brands.size());
-            brands = brands.subList(start, end);
+        // Page in the database; search is a name prefix match
+        Page<Brand> brandPage = (search != null && !search.trim().isEmpty())
+                ? brandRepository.findByNameStartingWith(search.trim(), pageable)
+                : brandRepository.findAll(pageable);
+        List<Brand> brands = brandPage.getContent();
+        long totalElements = brandPage.getTotalElements();
+
+        // Product counts of this page only
+        Map<Long, Long> productCounts = new HashMap<>();
+        if (!brands.isEmpty()) {
+            List<Long> brandIds = brands.stream().map(Brand::getId).collect(Collectors.toList());
+            for (Object[] row : brandRepository.countProductsByBrandIds(brandIds)) {
+                productCounts.put((Long) row[0], (Long) row[1]);
+            }
         }
 
         List<BrandResponse> brandResponses = brands.stream()
-                .map(this::mapToAdminBrandResponse)
+                .map(brand -> mapToAdminBrandResponse(brand, productCounts.getOrDefault(brand.getId(), 0L)))
                 .collect(Collectors.toList());
 
         // Calculate pagination info
@@ -142,6 +141,7 @@ public class BrandService {
 
         Brand savedBrand = brandRepository.save(brand);
         log.info("Created brand with ID: {}", savedBrand.getId());
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("brand"));
 
         BrandResponse response = mapToBrandResponse(savedBrand);
 
@@ -169,8 +169,10 @@ public class BrandService {
 
         Brand updatedBrand = brandRepository.save(brand);
         log.info("Updated brand ID: {}", updatedBrand.getId());
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("brand"));
 
-        BrandResponse response = mapToAdminBrandResponse(updatedBrand);
+        BrandResponse response = mapToAdminBrandResponse(updatedBrand,
+                brandRepository.countProductsByBrandId(updatedBrand.getId()));
 
         return ApiResponse.success("Cập nhật thương hiệu thành công", response);
     }
@@ -185,12 +187,13 @@ public class BrandService {
                 .orElseThrow(() -> new ResourceNotFoundException("Thương hiệu không tồn tại"));
 
         // Check if brand has products
-        if (brand.getProducts() != null && !brand.getProducts().isEmpty()) {
+        if (brandRepository.countProductsByBrandId(id) > 0) {
             throw new BadRequestException("Không thể xóa thương hiệu đang có sản phẩm. Vui lòng chuyển sản phẩm sang thương hiệu khác trước.");
         }
 
         brandRepository.delete(brand);
         log.info("Deleted brand ID: {}", id);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("brand"));
 
         Map<String, Object> responseData = Map.of("deleted_brand_id", id);
 
@@ -218,12 +221,12 @@ public class BrandService {
                 .build();
     }
 
-    private BrandResponse mapToAdminBrandResponse(Brand brand) {
+    private BrandResponse mapToAdminBrandResponse(Brand brand, long productCount) {
         return BrandResponse.builder()
                 .id(brand.getId())
                 .name(brand.getName())
                 .description(brand.getDescription())
-                .productCount(brand.getProducts() != null ? brand.getProducts().size() : 0)
+                .productCount((int) productCount)
                 .createdAt(brand.getCreatedAt())
                 .build();
     }
@@ -0,0 +1,57 @@
+package fit.se.be_phone_store.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * In-memory verification code store (default)
+ * Bounded by size and expired after write, so abandoned signups cannot grow the heap.
+ */
+@Component
+@ConditionalOnProperty(name = "app.verification.store", havingValue = "memory", matchIfMissing = true)
+public class CaffeineVerificationCodeStore implements VerificationCodeStore {
+
+    private final Cache<String, VerificationCode> codes;
+
+    public CaffeineVerificationCodeStore(@Value("${app.verification.max-size:100000}") long maxSize,
+                                         @Value("${app.verification.expiration-minutes:15}") long expirationMinutes) {
+        this.codes = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(expirationMinutes))
+                .build();
+    }
+
+    @Override
+    public void save(String email, String code, LocalDateTime expirationTime) {
+        codes.put(email, new VerificationCode(code, expirationTime, 0));
+    }
+
+    @Override
+    public Optional<VerificationCode> find(String email) {
+        return Optional.ofNullable(codes.getIfPresent(email));
+    }
+
+    @Override
+    public int incrementAttempts(String email) {
+        VerificationCode updated = codes.asMap().computeIfPresent(email, (key, current) ->
+                new VerificationCode(current.getCode(), current.getExpirationTime(), current.getAttempts() + 1));
+        return updated != null ? updated.getAttempts() : 0;
+    }
+
+    @Override
+    public void remove(String email) {
+        codes.invalidate(email);
+    }
+
+    @Override
+    public long size() {
+        return codes.estimatedSize();
+    }
+}
@@ -0,0 +1,85 @@
+package fit.se.be_phone_store.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import fit.se.be_phone_store.dto.response.CartCountResponse;
+import fit.se.be_phone_store.dto.response.CartDetailResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Cart Cache
+ * Short-lived per-user cache of cart read results, invalidated by every cart mutation.
+ * The TTL bounds staleness from changes made outside the cart (product stock, active flag).
+ */
+@Component
+@Slf4j
+public class CartCache {
+
+    private final Cache<Long, CartCountResponse> counts;
+    private final Cache<Long, CartDetailResponse> details;
+    private final boolean detailsEnabled;
+
+    public CartCache(@Value("${app.cart.cache.max-size:10000}") long maxSize,
+                     @Value("${app.cart.cache.ttl-seconds:30}") long ttlSeconds,
+                     @Value("${app.cart.cache.details-enabled:false}") boolean detailsEnabled) {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.details = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.detailsEnabled = detailsEnabled;
+    }
+
+    /**
+     * Get cart count of a user, loading it on a miss
+     */
+    public CartCountResponse getCount(Long userId, Function<Long, CartCountResponse> loader) {
+        return counts.get(userId, loader);
+    }
+
+    /**
+     * Get cart detail of a user, loading it on a miss (always loads when the detail cache is disabled)
+     */
+    public CartDetailResponse getDetail(Long userId, Function<Long, CartDetailResponse> loader) {
+        if (!detailsEnabled) {
+            return loader.apply(userId);
+        }
+        return details.get(userId, loader);
+    }
+
+    /**
+     * Invalidate cached cart data of a user.
+     * Invalidates again after commit so a concurrent read cannot re-cache the old state.
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        evict(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    private void evict(Long userId) {
+        counts.invalidate(userId);
+        details.invalidate(userId);
+        log.debug("Evicted cached cart for user: {}", userId);
+    }
+}
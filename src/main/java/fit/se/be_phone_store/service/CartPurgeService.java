@@ -0,0 +1,61 @@
+package fit.se.be_phone_store.service;
+
+import fit.se.be_phone_store.repository.CartItemRepository;
+import fit.se.be_phone_store.repository.CartRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CartPurgeService - Deletes idle carts one keyset chunk per transaction
+ * Both deletes re-check idleness, so a cart touched after it was selected survives.
+ */
+@Service
+@RequiredArgsConstructor
+public class CartPurgeService {
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final CartCache cartCache;
+
+    /**
+     * Delete the next chunk of carts idle since before the cutoff, in cart ID order
+     * @param afterId last cart ID handled by the previous chunk (0 to start)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public PurgeChunk purgeChunk(Long afterId, LocalDateTime cutoff, int chunkSize) {
+        List<Object[]> rows = cartRepository.findIdleCarts(afterId, cutoff, PageRequest.of(0, chunkSize));
+        if (rows.isEmpty()) {
+            return new PurgeChunk(afterId, 0, 0, 0);
+        }
+
+        List<Long> cartIds = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            cartIds.add((Long) row[0]);
+        }
+
+        int itemsRemoved = cartItemRepository.deleteByIdleCartIds(cartIds, cutoff);
+        int cartsRemoved = cartRepository.deleteIdleEmptyCarts(cartIds, cutoff);
+        for (Object[] row : rows) {
+            cartCache.invalidate((Long) row[1]);
+        }
+
+        return new PurgeChunk(cartIds.get(cartIds.size() - 1), rows.size(), cartsRemoved, itemsRemoved);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class PurgeChunk {
+        private final Long lastId;
+        private final int scanned;
+        private final int cartsRemoved;
+        private final int itemsRemoved;
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -33,17 +34,19 @@ public class CartService {
     private final ProductColorRepository productColorRepository;
     private final ProductImageRepository productImageRepository;
     private final AuthService authService;
+    private final CartCache cartCache;
 
     /**
      * Get user cart
      */
     @Transactional(readOnly = true)
     public ApiResponse<CartDetailResponse> getCart() {
-        User currentUser = authService.getCurrentUser();
-        Cart cart = cartRepository.findByUserId(currentUser.getId())
-                .orElseGet(() -> createNewCart(currentUser));
-
-        CartDetailResponse response = buildCartDetailResponse(cart);
+        Long userId = authService.getCurrentUserId();
+        // A first-time user gets an empty cart; the cart row is created by the first write,
+        // so this read-only transaction never inserts (and may run on the replica)
+        CartDetailResponse response = cartCache.getDetail(userId, id -> cartRepository.findByUserId(id)
+                .map(this::buildCartDetailResponse)
+                .orElseGet(() -> buildEmptyCartResponse(id)));
         
         // Always return the response, message will be set in controller
         return ApiResponse.success("Lấy giỏ hàng thành công", response);
@@ -125,6 +128,9 @@ public class CartService {
             log.info("Added new item to cart");
         }
 
+        touchCart(cart.getId());
+        cartCache.invalidate(currentUser.getId());
+
         Map<String, Object> responseData = new HashMap<>();
         responseData.put("cart_item", buildCartItemDetail(cartItem));
         responseData.put("action", action);
@@ -145,6 +151,8 @@ public class CartService {
 
         CartItem cartItem = findAndVerifyCartItem(itemId, currentUser);
         Product product = cartItem.getProduct();
+        touchCart(cartItem.getCart().getId());
+        cartCache.invalidate(currentUser.getId());
 
         // If quantity is 0, delete item
         if (request.getQuantity() == 0) {
@@ -185,6 +193,8 @@ public class CartService {
 
         CartItem cartItem = findAndVerifyCartItem(itemId, currentUser);
         Product product = cartItem.getProduct();
+        touchCart(cartItem.getCart().getId());
+        cartCache.invalidate(currentUser.getId());
 
         // Validate new color exists and belongs to product
         Color newColor = colorRepository.findById(request.getColor_id())
@@ -237,6 +247,7 @@ public class CartService {
 
         CartItem cartItem = findAndVerifyCartItem(itemId, currentUser);
         cartItemRepository.delete(cartItem);
+        cartCache.invalidate(currentUser.getId());
 
         Map<String, Object> responseData = new HashMap<>();
         responseData.put("deleted_item_id", itemId);
@@ -259,6 +270,7 @@ public class CartService {
             clearedCount = items.size();
             cartItemRepository.deleteByCart(cart);
         }
+        cartCache.invalidate(currentUser.getId());
 
         Map<String, Object> responseData = new HashMap<>();
         responseData.put("cleared_items_count", clearedCount);
@@ -268,17 +280,15 @@ public class CartService {
 
     /**
      * Validate cart
+     * Items and products are loaded in one query; changed unit prices are refreshed with one bulk update.
      */
-    @Transactional(readOnly = true)
     public ApiResponse<CartValidateResponse> validateCart() {
-        User currentUser = authService.getCurrentUser();
-        log.info("Validating cart for user: {}", currentUser.getUsername());
-
-        Cart cart = cartRepository.findByUserId(currentUser.getId())
-                .orElseGet(() -> createNewCart(currentUser));
+        Long userId = authService.getCurrentUserId();
+        log.info("Validating cart for user: {}", userId);
 
-        List<CartItem> items = cartItemRepository.findByCart(cart);
+        List<CartItem> items = cartItemRepository.findByUserIdWithProduct(userId);
         
+        List<Long> changedItemIds = new ArrayList<>();
         List<CartValidateResponse.PriceChange> priceChanges = new ArrayList<>();
         List<CartValidateResponse.StockIssue> stockIssues = new ArrayList<>();
         List<CartValidateResponse.UnavailableProduct> unavailableProducts = new ArrayList<>();
@@ -293,21 +303,16 @@ public class CartService {
                     ? product.getDiscountPrice() 
                     : product.getPrice();
 
-            // Check price changes
+            // Check price changes (diff only; prices are refreshed in bulk below)
             if (item.getUnitPrice().compareTo(currentPrice) != 0) {
-                CartValidateResponse.PriceChange priceChange = CartValidateResponse.PriceChange.builder()
+                priceChanges.add(CartValidateResponse.PriceChange.builder()
                         .item_id(item.getId())
                         .product_name(product.getName())
                         .old_price(item.getUnitPrice())
                         .new_price(currentPrice)
                         .updated(false)
-                        .build();
-                priceChanges.add(priceChange);
-                
-                // Update price in cart
-                item.setUnitPrice(currentPrice);
-                cartItemRepository.save(item);
-                priceChange.setUpdated(true);
+                        .build());
+                changedItemIds.add(item.getId());
             }
 
             // Check stock issues
@@ -332,6 +337,13 @@ public class CartService {
             }
         }
 
+        if (!changedItemIds.isEmpty()) {
+            int updated = cartItemRepository.refreshUnitPrices(changedItemIds);
+            priceChanges.forEach(priceChange -> priceChange.setUpdated(true));
+            cartCache.invalidate(userId);
+            log.info("Refreshed unit price of {} cart items", updated);
+        }
+
         boolean isValid = priceChanges.isEmpty() && stockIssues.isEmpty() && unavailableProducts.isEmpty();
 
         CartValidateResponse response = CartValidateResponse.builder()
@@ -349,6 +361,8 @@ public class CartService {
 
     /**
      * Sync guest cart
+     * Products, product-color pairs and existing lines are resolved in three set-based queries;
+     * merged and new lines are written in one batched upsert.
      */
     public ApiResponse<CartSyncResponse> syncCart(SyncCartRequest request) {
         User currentUser = authService.getCurrentUser();
@@ -357,72 +371,92 @@ public class CartService {
         Cart cart = cartRepository.findByUserId(currentUser.getId())
                 .orElseGet(() -> createNewCart(currentUser));
 
+        List<SyncCartRequest.GuestCartItem> guestItems = request.getGuest_cart_items();
+        Set<Long> productIds = guestItems.stream()
+                .map(SyncCartRequest.GuestCartItem::getProduct_id)
+                .collect(Collectors.toSet());
+        Set<Long> colorIds = guestItems.stream()
+                .map(SyncCartRequest.GuestCartItem::getColor_id)
+                .collect(Collectors.toSet());
+
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+
+        Set<String> productColorPairs = new HashSet<>();
+        if (!productIds.isEmpty()) {
+            for (Object[] row : productColorRepository.findPairsByProductIdsAndColorIds(productIds, colorIds)) {
+                productColorPairs.add(cartLineKey((Long) row[0], (Long) row[1]));
+            }
+        }
+
+        // Current state of every line, keyed by product and color; existing lines first
+        Map<String, CartItem> lines = new LinkedHashMap<>();
+        for (CartItem item : cartItemRepository.findByCartId(cart.getId())) {
+            lines.put(cartLineKey(item.getProduct().getId(), item.getColor().getId()), item);
+        }
+        int existingLines = lines.size();
+
+        Map<String, CartItem> changedLines = new LinkedHashMap<>();
         int syncedItems = 0;
         int mergedItems = 0;
         int newItems = 0;
         int failedItems = 0;
 
-        for (SyncCartRequest.GuestCartItem guestItem : request.getGuest_cart_items()) {
-            try {
-                Product product = productRepository.findById(guestItem.getProduct_id())
-                        .orElse(null);
-                
-                if (product == null || !product.getIsActive()) {
-                    failedItems++;
-                    continue;
-                }
+        for (SyncCartRequest.GuestCartItem guestItem : guestItems) {
+            Product product = products.get(guestItem.getProduct_id());
+            if (product == null || !product.getIsActive()) {
+                failedItems++;
+                continue;
+            }
 
-                Color color = colorRepository.findById(guestItem.getColor_id())
-                        .orElse(null);
+            String key = cartLineKey(guestItem.getProduct_id(), guestItem.getColor_id());
+            if (!productColorPairs.contains(key)) {
+                failedItems++;
+                continue;
+            }
 
-                if (color == null || !productColorRepository.existsByProductIdAndColorId(
-                        guestItem.getProduct_id(), guestItem.getColor_id())) {
+            CartItem line = lines.get(key);
+            if (line != null) {
+                // Merge quantities
+                int newQuantity = line.getQuantity() + guestItem.getQuantity();
+                if (product.getStockQuantity() < newQuantity) {
                     failedItems++;
                     continue;
                 }
-
-                // Check if item already exists
-                Optional<CartItem> existingItem = cartItemRepository.findByCartAndProductAndColor(
-                        cart, product, color);
-
-                if (existingItem.isPresent()) {
-                    // Merge quantities
-                    CartItem item = existingItem.get();
-                    int newQuantity = item.getQuantity() + guestItem.getQuantity();
-                    if (product.getStockQuantity() >= newQuantity) {
-                        item.setQuantity(newQuantity);
-                        cartItemRepository.save(item);
-                        mergedItems++;
-                    } else {
-                        failedItems++;
-                    }
-                } else {
-                    // Create new item
-                    CartItem newItem = new CartItem();
-                    newItem.setCart(cart);
-                    newItem.setProduct(product);
-                    newItem.setColor(color);
-                    newItem.setQuantity(guestItem.getQuantity());
-                    
-                    BigDecimal currentPrice = product.getDiscountPrice() != null && 
-                            product.getDiscountPrice().compareTo(BigDecimal.ZERO) > 0 
-                            ? product.getDiscountPrice() 
-                            : product.getPrice();
-                    newItem.setUnitPrice(currentPrice);
-                    
-                    cartItemRepository.save(newItem);
-                    newItems++;
-                }
-                syncedItems++;
-            } catch (Exception e) {
-                log.error("Failed to sync cart item: {}", e.getMessage());
-                failedItems++;
+                // Detached copy so the managed entity is not flushed on top of the upsert
+                CartItem merged = new CartItem(line.getId(), newQuantity, line.getUnitPrice(),
+                        cart, product, line.getColor());
+                lines.put(key, merged);
+                changedLines.put(key, merged);
+                mergedItems++;
+            } else {
+                // Create new item
+                CartItem newItem = new CartItem();
+                newItem.setCart(cart);
+                newItem.setProduct(product);
+                newItem.setColor(colorRepository.getReferenceById(guestItem.getColor_id()));
+                newItem.setQuantity(guestItem.getQuantity());
+                
+                BigDecimal currentPrice = product.getDiscountPrice() != null && 
+                        product.getDiscountPrice().compareTo(BigDecimal.ZERO) > 0 
+                        ? product.getDiscountPrice() 
+                        : product.getPrice();
+                newItem.setUnitPrice(currentPrice);
+
+                lines.put(key, newItem);
+                changedLines.put(key, newItem);
+                newItems++;
             }
+            syncedItems++;
         }
 
-        List<CartItem> allItems = cartItemRepository.findByCart(cart);
-        int totalItems = allItems.size();
-        int totalQuantity = allItems.stream()
+        cartItemRepository.upsertItems(new ArrayList<>(changedLines.values()));
+        touchCart(cart.getId());
+        cartCache.invalidate(currentUser.getId());
+        log.info("Synced guest cart: {} lines written, {} existing lines", changedLines.size(), existingLines);
+
+        int totalItems = lines.size();
+        int totalQuantity = lines.values().stream()
                 .mapToInt(CartItem::getQuantity)
                 .sum();
 
@@ -447,36 +481,38 @@ public class CartService {
      */
     @Transactional(readOnly = true)
     public ApiResponse<CartCountResponse> getCartCount() {
-        User currentUser = authService.getCurrentUser();
-        Cart cart = cartRepository.findByUserId(currentUser.getId())
-                .orElseGet(() -> createNewCart(currentUser));
+        // User ID comes from the authenticated principal; hits are served without any query
+        Long userId = authService.getCurrentUserId();
+        CartCountResponse response = cartCache.getCount(userId, this::loadCartCount);
 
-        List<CartItem> items = cartItemRepository.findByCart(cart);
-        
-        int totalItems = items.size();
-        int totalQuantity = items.stream().mapToInt(CartItem::getQuantity).sum();
-        int availableItems = 0;
-        int unavailableItems = 0;
+        return ApiResponse.success("Lấy số lượng giỏ hàng thành công", response);
+    }
 
-        for (CartItem item : items) {
-            if (isItemAvailable(item)) {
-                availableItems++;
-            } else {
-                unavailableItems++;
-            }
-        }
+    private CartCountResponse loadCartCount(Long userId) {
+        List<Object[]> rows = cartItemRepository.getCartCountSummaryByUserId(userId);
+        Object[] row = rows.isEmpty() ? new Object[]{0, 0, 0} : rows.get(0);
 
-        CartCountResponse response = CartCountResponse.builder()
+        int totalItems = ((Number) row[0]).intValue();
+        int totalQuantity = ((Number) row[1]).intValue();
+        int availableItems = ((Number) row[2]).intValue();
+
+        return CartCountResponse.builder()
                 .total_items(totalItems)
                 .total_quantity(totalQuantity)
                 .available_items(availableItems)
-                .unavailable_items(unavailableItems)
+                .unavailable_items(totalItems - availableItems)
                 .build();
-
-        return ApiResponse.success("Lấy số lượng giỏ hàng thành công", response);
     }
 
     // Helper methods
+    private static String cartLineKey(Long productId, Long colorId) {
+        return productId + ":" + colorId;
+    }
+
+    private void touchCart(Long cartId) {
+        cartRepository.touch(cartId, LocalDateTime.now());
+    }
+
     private Cart createNewCart(User user) {
         Cart cart = new Cart();
         cart.setUser(user);
@@ -495,11 +531,16 @@ public class CartService {
     }
 
     private CartDetailResponse buildCartDetailResponse(Cart cart) {
-        List<CartItem> items = cartItemRepository.findByCart(cart);
-        
-        List<CartDetailResponse.CartItemDetail> itemDetails = items.stream()
-                .map(this::buildCartItemDetail)
-                .collect(Collectors.toList());
+        // Items, products, colors and primary images in one query
+        List<Object[]> rows = cartItemRepository.findCartDetailsByCartId(cart.getId());
+
+        List<CartItem> items = new ArrayList<>(rows.size());
+        List<CartDetailResponse.CartItemDetail> itemDetails = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            CartItem item = (CartItem) row[0];
+            items.add(item);
+            itemDetails.add(buildCartItemDetail(item, (String) row[1]));
+        }
 
         int totalItems = items.size();
         int totalQuantity = items.stream().mapToInt(CartItem::getQuantity).sum();
@@ -513,22 +554,38 @@ public class CartService {
                 .total_quantity(totalQuantity)
                 .has_unavailable_items(hasUnavailableItems)
                 .created_at(cart.getCreatedAt())
-                .updated_at(cart.getCreatedAt()) // Cart doesn't have updated_at, use created_at
+                .updated_at(cart.getUpdatedAt() != null ? cart.getUpdatedAt() : cart.getCreatedAt())
+                .build();
+    }
+
+    private CartDetailResponse buildEmptyCartResponse(Long userId) {
+        return CartDetailResponse.builder()
+                .user_id(userId)
+                .items(new ArrayList<>())
+                .total_items(0)
+                .total_quantity(0)
+                .has_unavailable_items(false)
                 .build();
     }
 
     private CartDetailResponse.CartItemDetail buildCartItemDetail(CartItem item) {
-        Product product = item.getProduct();
-        Color color = item.getColor();
+        Long productId = item.getProduct().getId();
 
         // Get primary image
-        String primaryImage = productImageRepository.findByProductIdAndIsPrimaryTrue(product.getId())
+        String primaryImage = productImageRepository.findByProductIdAndIsPrimaryTrue(productId)
                 .map(ProductImage::getImageUrl)
                 .orElseGet(() -> {
-                    List<ProductImage> images = productImageRepository.findByProductId(product.getId());
+                    List<ProductImage> images = productImageRepository.findByProductId(productId);
                     return images.isEmpty() ? null : images.get(0).getImageUrl();
                 });
 
+        return buildCartItemDetail(item, primaryImage);
+    }
+
+    private CartDetailResponse.CartItemDetail buildCartItemDetail(CartItem item, String primaryImage) {
+        Product product = item.getProduct();
+        Color color = item.getColor();
+
         BigDecimal currentPrice = product.getDiscountPrice() != null && 
                 product.getDiscountPrice().compareTo(BigDecimal.ZERO) > 0 
                 ? product.getDiscountPrice() 
@@ -12,6 +12,7 @@ import fit.se.be_phone_store.exception.ResourceNotFoundException;
 import fit.se.be_phone_store.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,6 +20,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -33,6 +35,7 @@ import java.util.stream.Collectors;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Get all categories (User API)
@@ -42,9 +45,10 @@ public class CategoryService {
         log.info("Getting all categories for users");
 
         List<Category> categories = categoryRepository.findAll(Sort.by(Sort.Direction.ASC, "name"));
+        Map<Long, ProductCounts> productCounts = getProductCounts();
 
         List<CategoryResponse> categoryResponses = categories.stream()
-                .map(this::mapToCategoryResponse)
+                .map(category -> mapToCategoryResponse(category, productCounts.get(category.getId())))
                 .collect(Collectors.toList());
 
         return ApiResponse.success("Success getting all categories for users", categoryResponses);
@@ -60,7 +64,7 @@ public class CategoryService {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Danh mục không tồn tại"));
 
-        CategoryResponse response = mapToCategoryResponseWithDetails(category);
+        CategoryResponse response = mapToCategoryResponseWithDetails(category, getProductCounts(id));
 
         return ApiResponse.success("Success", response);
     }
@@ -74,9 +78,10 @@ public class CategoryService {
 
         Sort sort = buildSort(sortBy, sortOrder);
         List<Category> categories = categoryRepository.findAll(sort);
+        Map<Long, ProductCounts> productCounts = getProductCounts();
 
         List<CategoryResponse> categoryResponses = categories.stream()
-                .map(this::mapToAdminCategoryResponse)
+                .map(category -> mapToAdminCategoryResponse(category, productCounts.get(category.getId())))
                 .collect(Collectors.toList());
 
         return ApiResponse.success("Success", categoryResponses);
@@ -99,8 +104,9 @@ public class CategoryService {
 
         Category savedCategory = categoryRepository.save(category);
         log.info("Created category with ID: {}", savedCategory.getId());
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("category"));
 
-        CategoryResponse response = mapToCategoryResponse(savedCategory);
+        CategoryResponse response = mapToCategoryResponse(savedCategory, ProductCounts.EMPTY);
 
         return ApiResponse.success("Created success", response);
     }
@@ -127,8 +133,9 @@ public class CategoryService {
 
         Category updatedCategory = categoryRepository.save(category);
         log.info("Updated category ID: {}", updatedCategory.getId());
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("category"));
 
-        CategoryResponse response = mapToAdminCategoryResponse(updatedCategory);
+        CategoryResponse response = mapToAdminCategoryResponse(updatedCategory, getProductCounts(id));
 
         return ApiResponse.success("Updated success", response);
     }
@@ -149,6 +156,7 @@ public class CategoryService {
 
         categoryRepository.delete(category);
         log.info("Deleted category ID: {}", id);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("category"));
 
         Map<String, Object> responseData = Map.of("deleted_category_id", id);
 
@@ -178,7 +186,7 @@ public class CategoryService {
         List<Object[]> priceData = categoryRepository.getPriceRangeByCategory(id);
 
         CategoryStatisticsResponse response = buildCategoryStatisticsResponse(
-                category, statisticsData, totalOrders, brandData, priceData);
+                category, getProductCounts(id), statisticsData, totalOrders, brandData, priceData);
 
         return ApiResponse.success("Getting statistics success", response);
     }
@@ -226,35 +234,53 @@ public class CategoryService {
 
     // Private helper methods
 
-    private CategoryResponse mapToCategoryResponse(Category category) {
+    /**
+     * Product counts of all categories from one grouped query (categories without products are absent)
+     */
+    private Map<Long, ProductCounts> getProductCounts() {
+        Map<Long, ProductCounts> counts = new HashMap<>();
+        for (Object[] row : categoryRepository.getProductCountsByCategory()) {
+            counts.put((Long) row[0], ProductCounts.of(row));
+        }
+        return counts;
+    }
+
+    private ProductCounts getProductCounts(Long categoryId) {
+        List<Object[]> rows = categoryRepository.getProductCountsByCategoryId(categoryId);
+        return rows.isEmpty() ? ProductCounts.EMPTY : ProductCounts.of(rows.get(0));
+    }
+
+    private CategoryResponse mapToCategoryResponse(Category category, ProductCounts counts) {
+        counts = counts != null ? counts : ProductCounts.EMPTY;
         return CategoryResponse.builder()
                 .id(category.getId())
                 .name(category.getName())
                 .description(category.getDescription())
-                .productCount(category.getProductCount())
+                .productCount(counts.total())
                 .createdAt(category.getCreatedAt())
                 .build();
     }
 
-    private CategoryResponse mapToCategoryResponseWithDetails(Category category) {
+    private CategoryResponse mapToCategoryResponseWithDetails(Category category, ProductCounts counts) {
         return CategoryResponse.builder()
                 .id(category.getId())
                 .name(category.getName())
                 .description(category.getDescription())
-                .productCount(category.getProductCount())
-                .activeProductCount((int) category.getActiveProductCount())
+                .productCount(counts.total())
+                .activeProductCount(counts.active())
                 .createdAt(category.getCreatedAt())
                 .build();
     }
 
-    private CategoryResponse mapToAdminCategoryResponse(Category category) {
+    private CategoryResponse mapToAdminCategoryResponse(Category category, ProductCounts counts) {
+        counts = counts != null ? counts : ProductCounts.EMPTY;
         return CategoryResponse.builder()
                 .id(category.getId())
                 .name(category.getName())
                 .description(category.getDescription())
-                .productCount(category.getProductCount())
-                .activeProductCount((int) category.getActiveProductCount())
-                .inactiveProductCount((int) category.getInactiveProductCount())
+                .productCount(counts.total())
+                .activeProductCount(counts.active())
+                .inactiveProductCount(counts.inactive())
                 .createdAt(category.getCreatedAt())
                 .updatedAt(category.getUpdatedAt())
                 .build();
@@ -273,7 +299,7 @@ public class CategoryService {
     }
 
     private CategoryStatisticsResponse buildCategoryStatisticsResponse(
-            Category category, List<Object[]> statisticsData, Long totalOrders,
+            Category category, ProductCounts counts, List<Object[]> statisticsData, Long totalOrders,
             List<Object[]> brandData, List<Object[]> priceData) {
 
         // Category info
@@ -285,9 +311,9 @@ public class CategoryService {
 
         // Product statistics
         CategoryStatisticsResponse.ProductStatistics productStats = CategoryStatisticsResponse.ProductStatistics.builder()
-                .totalProducts(category.getProductCount())
-                .activeProducts((int) category.getActiveProductCount())
-                .inactiveProducts((int) category.getInactiveProductCount())
+                .totalProducts(counts.total())
+                .activeProducts(counts.active())
+                .inactiveProducts(counts.inactive())
                 .productsInStock(0) // Will be calculated from actual data
                 .productsOutOfStock(0) // Will be calculated from actual data
                 .build();
@@ -379,4 +405,36 @@ public class CategoryService {
                 .fastestGrowing(fastestGrowing)
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Total and active product count of a category
+     */
+    private static class ProductCounts {
+        private static final ProductCounts EMPTY = new ProductCounts(0, 0);
+
+        private final int total;
+        private final int active;
+
+        private ProductCounts(int total, int active) {
+            this.total = total;
+            this.active = active;
+        }
+
+        private static ProductCounts of(Object[] row) {
+            return new ProductCounts(((Number) row[1]).intValue(),
+                    row[2] != null ? ((Number) row[2]).intValue() : 0);
+        }
+
+        public int total() {
+            return total;
+        }
+
+        public int active() {
+            return active;
+        }
+
+        public int inactive() {
+            return total - active;
+        }
+    }
+}
@@ -8,8 +8,6 @@ import fit.se.be_phone_store.dto.response.color.ColorResponse;
 import fit.se.be_phone_store.dto.response.color.ColorStatisticsResponse;
 import fit.se.be_phone_store.dto.response.color.ColorUsageResponse;
 import fit.se.be_phone_store.entity.Color;
-import fit.se.be_phone_store.entity.Product;
-import fit.se.be_phone_store.entity.ProductColor;
 import fit.se.be_phone_store.exception.ResourceNotFoundException;
 import fit.se.be_phone_store.exception.ValidationException;
 import fit.se.be_phone_store.exception.InvalidOperationException;
@@ -18,6 +16,7 @@ import fit.se.be_phone_store.repository.ProductRepository;
 import fit.se.be_phone_store.repository.ProductColorRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -27,6 +26,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -45,6 +45,7 @@ public class ColorService {
     private final ColorRepository colorRepository;
     private final ProductRepository productRepository;
     private final ProductColorRepository productColorRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final Pattern HEX_PATTERN = Pattern.compile("^#[0-9A-Fa-f]{6}$");
 
@@ -148,6 +149,7 @@ public class ColorService {
 
         Color savedColor = colorRepository.save(color);
         log.info("Created color with ID: {}", savedColor.getId());
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("color"));
 
         ColorDetailResponse response = ColorDetailResponse.builder()
                 .id(savedColor.getId())
@@ -183,6 +185,7 @@ public class ColorService {
 
         Color savedColor = colorRepository.save(color);
         log.info("Updated color ID: {}", savedColor.getId());
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("color"));
 
         ColorDetailResponse response = ColorDetailResponse.builder()
                 .id(savedColor.getId())
@@ -204,16 +207,13 @@ public class ColorService {
                 .orElseThrow(() -> new ResourceNotFoundException("Màu sắc không tồn tại"));
 
         // Check if color is being used by products
-        List<Product> productsWithColor = color.getProducts();
-        List<ProductColor> productColorsWithColor = color.getProductColors();
-
-        if ((productsWithColor != null && !productsWithColor.isEmpty()) ||
-                (productColorsWithColor != null && !productColorsWithColor.isEmpty())) {
+        if (productRepository.existsByColorId(id) || productColorRepository.existsByColorId(id)) {
             throw new InvalidOperationException("Không thể xóa màu sắc đang được sử dụng bởi sản phẩm");
         }
 
         colorRepository.delete(color);
         log.info("Deleted color ID: {}", id);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("color"));
 
         Map<String, Object> result = new HashMap<>();
         result.put("deleted_color_id", id);
@@ -223,42 +223,37 @@ public class ColorService {
 
     /**
      * Get color usage information
+     * Counts come from count queries; product lists are paged projections
      */
     @Transactional(readOnly = true)
-    public ApiResponse<ColorUsageResponse> getColorUsage(Long id) {
+    public ApiResponse<ColorUsageResponse> getColorUsage(Long id, int page, int limit) {
         log.info("Getting color usage for ID: {}", id);
 
         Color color = colorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Màu sắc không tồn tại"));
 
-        // Get products using this color as default
-        List<Product> defaultProducts = color.getProducts() != null ? color.getProducts() : List.of();
-        List<ProductColor> variantProducts = color.getProductColors() != null ? color.getProductColors() : List.of();
+        long defaultCount = productRepository.countByColorId(id);
+        long variantCount = productColorRepository.countProductsByColorId(id);
 
         // Build usage summary
         ColorUsageResponse.UsageSummary summary = ColorUsageResponse.UsageSummary.builder()
-                .totalProducts((long) (defaultProducts.size() + variantProducts.size()))
-                .asDefaultColor((long) defaultProducts.size())
-                .asAvailableColor((long) variantProducts.size())
-                .totalUsage((long) (defaultProducts.size() + variantProducts.size()))
+                .totalProducts(defaultCount + variantCount)
+                .asDefaultColor(defaultCount)
+                .asAvailableColor(variantCount)
+                .totalUsage(defaultCount + variantCount)
                 .build();
 
         // Convert to simple product info
-        List<ColorUsageResponse.ProductInfo> defaultProductInfos = defaultProducts.stream()
-                .map(p -> ColorUsageResponse.ProductInfo.builder()
-                        .id(p.getId())
-                        .name(p.getName())
-                        .slug(p.getSlug())
-                        .build())
-                .collect(Collectors.toList());
+        Pageable pageable = PageRequest.of(Math.max(page, 1) - 1, Math.max(limit, 1));
+        List<ColorUsageResponse.ProductInfo> defaultProductInfos = defaultCount == 0 ? List.of() :
+                productRepository.findSummariesByColorId(id, pageable).stream()
+                        .map(this::convertToUsageProductInfo)
+                        .collect(Collectors.toList());
 
-        List<ColorUsageResponse.ProductInfo> variantProductInfos = variantProducts.stream()
-                .map(pc -> ColorUsageResponse.ProductInfo.builder()
-                        .id(pc.getProduct().getId())
-                        .name(pc.getProduct().getName())
-                        .slug(pc.getProduct().getSlug())
-                        .build())
-                .collect(Collectors.toList());
+        List<ColorUsageResponse.ProductInfo> variantProductInfos = variantCount == 0 ? List.of() :
+                productColorRepository.findProductSummariesByColorId(id, pageable).stream()
+                        .map(this::convertToUsageProductInfo)
+                        .collect(Collectors.toList());
 
         boolean canDelete = summary.getTotalUsage() == 0;
         String deleteBlockedReason = canDelete ? null :
@@ -279,45 +274,43 @@ public class ColorService {
 
     /**
      * Get color statistics
+     * Usage counts of all colors come from one statement
      */
     @Transactional(readOnly = true)
     public ApiResponse<ColorStatisticsResponse> getColorStatistics() {
         log.info("Getting color statistics");
 
-        long totalColors = colorRepository.count();
-
-        // Get colors used in products (simplified approach)
-        List<Color> allColors = colorRepository.findAll();
-        List<Color> usedColors = allColors.stream()
-                .filter(color -> (color.getProducts() != null && !color.getProducts().isEmpty()) ||
-                        (color.getProductColors() != null && !color.getProductColors().isEmpty()))
-                .collect(Collectors.toList());
+        List<ColorStatisticsResponse.ColorUsage> usedColors = new ArrayList<>();
+        List<ColorResponse> unusedColors = new ArrayList<>();
+        List<Object[]> rows = colorRepository.getColorUsageCounts();
+        for (Object[] row : rows) {
+            long productCount = ((Number) row[3]).longValue() + ((Number) row[4]).longValue();
+            if (productCount > 0) {
+                usedColors.add(ColorStatisticsResponse.ColorUsage.builder()
+                        .id((Long) row[0])
+                        .colorName((String) row[1])
+                        .hexCode((String) row[2])
+                        .productCount(productCount)
+                        .build());
+            } else {
+                unusedColors.add(ColorResponse.builder()
+                        .id((Long) row[0])
+                        .colorName((String) row[1])
+                        .hexCode((String) row[2])
+                        .build());
+            }
+        }
 
+        long totalColors = rows.size();
         long colorsInUse = usedColors.size();
         long colorsUnused = totalColors - colorsInUse;
 
         // Get most used colors
         List<ColorStatisticsResponse.ColorUsage> mostUsedColors = usedColors.stream()
-                .map(color -> {
-                    int productCount = (color.getProducts() != null ? color.getProducts().size() : 0) +
-                            (color.getProductColors() != null ? color.getProductColors().size() : 0);
-                    return ColorStatisticsResponse.ColorUsage.builder()
-                            .id(color.getId())
-                            .colorName(color.getColorName())
-                            .hexCode(color.getHexCode())
-                            .productCount((long) productCount)
-                            .build();
-                })
                 .sorted((a, b) -> Long.compare(b.getProductCount(), a.getProductCount()))
                 .limit(5)
                 .collect(Collectors.toList());
 
-        // Get unused colors
-        List<ColorResponse> unusedColors = allColors.stream()
-                .filter(c -> !usedColors.contains(c))
-                .map(this::convertToColorResponse)
-                .collect(Collectors.toList());
-
         // Build statistics response
         ColorStatisticsResponse.Overview overview = ColorStatisticsResponse.Overview.builder()
                 .totalColors(totalColors)
@@ -344,6 +337,14 @@ public class ColorService {
                 .build();
     }
 
+    private ColorUsageResponse.ProductInfo convertToUsageProductInfo(Object[] row) {
+        return ColorUsageResponse.ProductInfo.builder()
+                .id((Long) row[0])
+                .name((String) row[1])
+                .slug((String) row[2])
+                .build();
+    }
+
     private boolean isValidHexCode(String hexCode) {
         return hexCode != null && HEX_PATTERN.matcher(hexCode).matches();
     }
@@ -0,0 +1,72 @@
+package fit.se.be_phone_store.service;
+
+import fit.se.be_phone_store.entity.EmailVerificationCode;
+import fit.se.be_phone_store.repository.EmailVerificationCodeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Database verification code store (multi-node)
+ * Codes live in email_verification_codes, so verify-email works on whichever node serves it.
+ */
+@Component
+@ConditionalOnProperty(name = "app.verification.store", havingValue = "database")
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class DatabaseVerificationCodeStore implements VerificationCodeStore {
+
+    private final EmailVerificationCodeRepository emailVerificationCodeRepository;
+
+    @Override
+    public void save(String email, String code, LocalDateTime expirationTime) {
+        emailVerificationCodeRepository.save(new EmailVerificationCode(email, code, expirationTime, 0));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<VerificationCode> find(String email) {
+        return emailVerificationCodeRepository.findById(email)
+                .map(c -> new VerificationCode(c.getCode(), c.getExpirationTime(), c.getAttempts()));
+    }
+
+    @Override
+    public int incrementAttempts(String email) {
+        if (emailVerificationCodeRepository.incrementAttempts(email) == 0) {
+            return 0;
+        }
+        Integer attempts = emailVerificationCodeRepository.findAttemptsByEmail(email);
+        return attempts != null ? attempts : 0;
+    }
+
+    @Override
+    public void remove(String email) {
+        if (emailVerificationCodeRepository.existsById(email)) {
+            emailVerificationCodeRepository.deleteById(email);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long size() {
+        return emailVerificationCodeRepository.countPending(LocalDateTime.now());
+    }
+
+    /**
+     * Delete expired codes
+     */
+    @Scheduled(fixedDelayString = "${app.verification.cleanup-interval-ms:300000}")
+    public void deleteExpired() {
+        int deleted = emailVerificationCodeRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired verification codes", deleted);
+        }
+    }
+}
@@ -3,20 +3,27 @@ package fit.se.be_phone_store.service;
 import fit.se.be_phone_store.entity.User;
 import fit.se.be_phone_store.exception.AuthenticationException;
 import fit.se.be_phone_store.repository.UserRepository;
+import fit.se.be_phone_store.util.PrincipalCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Map;
-import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
 
 /**
  * Email Verification Service
- * Manages email verification codes (in-memory for testing)
- * In production, should use Redis or database
+ * Manages email verification codes through a pluggable VerificationCodeStore
+ * (in-memory by default, database for multi-node deployments)
  */
 @Service
 @Slf4j
@@ -28,21 +35,50 @@ public class EmailVerificationService {
     @Autowired
     private EmailService emailService;
 
-    // In-memory storage for verification codes
-    // Key: email, Value: VerificationCodeInfo
-    private final Map<String, VerificationCodeInfo> verificationCodes = new ConcurrentHashMap<>();
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private VerificationCodeStore verificationCodeStore;
 
-    // Code expiration time: 15 minutes
-    private static final int CODE_EXPIRATION_MINUTES = 15;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RateLimitService rateLimitService;
+
+    // Shared generator; SecureRandom is thread-safe and expensive to seed
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Code expiration time (minutes)
+    @Value("${app.verification.expiration-minutes:15}")
+    private int codeExpirationMinutes;
+
+    // Wrong guesses allowed before the code is discarded
+    @Value("${app.verification.max-attempts:5}")
+    private int maxAttempts;
+
+    private Counter verifiedCounter;
+    private Counter failedCounter;
+    private Counter lockedCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("verification.codes.pending", verificationCodeStore, VerificationCodeStore::size)
+                .description("Pending email verification codes")
+                .register(meterRegistry);
+        verifiedCounter = meterRegistry.counter("verification.attempts", "result", "success");
+        failedCounter = meterRegistry.counter("verification.attempts", "result", "failed");
+        lockedCounter = meterRegistry.counter("verification.attempts", "result", "locked");
+    }
 
 
     public String generateVerificationCode(String email) {
         // Generate 6-digit code
-        Random random = new Random();
-        String code = String.format("%06d", random.nextInt(1000000));
+        String code = String.format("%06d", RANDOM.nextInt(1000000));
 
-        LocalDateTime expirationTime = LocalDateTime.now().plusMinutes(CODE_EXPIRATION_MINUTES);
-        verificationCodes.put(email, new VerificationCodeInfo(code, expirationTime));
+        LocalDateTime expirationTime = LocalDateTime.now().plusMinutes(codeExpirationMinutes);
+        verificationCodeStore.save(email, code, expirationTime);
 
         // Log verification code to console for testing
         log.info("========================================");
@@ -114,7 +150,7 @@ public class EmailVerificationService {
                 "<p style='color: #667eea; font-size: 32px; font-weight: bold; letter-spacing: 5px; margin: 0; font-family: monospace;'>" + code + "</p>" +
                 "</div>" +
                 "<p style='color: #999999; font-size: 14px; line-height: 1.6; margin: 20px 0 0 0;'>" +
-                "<strong>Lưu ý:</strong> Mã xác thực này sẽ hết hạn sau <strong>" + CODE_EXPIRATION_MINUTES + " phút</strong> (vào lúc " + expirationTimeStr + ")." +
+                "<strong>Lưu ý:</strong> Mã xác thực này sẽ hết hạn sau <strong>" + codeExpirationMinutes + " phút</strong> (vào lúc " + expirationTimeStr + ")." +
                 "</p>" +
                 "<p style='color: #999999; font-size: 14px; line-height: 1.6; margin: 20px 0 0 0;'>" +
                 "Nếu bạn không yêu cầu mã này, vui lòng bỏ qua email này." +
@@ -139,26 +175,46 @@ public class EmailVerificationService {
 
 
     public boolean verifyCode(String email, String code) {
-        VerificationCodeInfo codeInfo = verificationCodes.get(email);
+        rateLimitService.checkAccount("verify-email", email);
+
+        Optional<VerificationCodeStore.VerificationCode> stored = verificationCodeStore.find(email);
 
-        if (codeInfo == null) {
+        if (stored.isEmpty()) {
             System.out.println("Verification failed: No code found for email " + email);
+            failedCounter.increment();
             return false;
         }
 
-
-        if (LocalDateTime.now().isAfter(codeInfo.getExpirationTime())) {
-            verificationCodes.remove(email);
+        VerificationCodeStore.VerificationCode codeInfo = stored.get();
+        if (codeInfo.isExpired()) {
+            verificationCodeStore.remove(email);
             System.out.println("Verification failed: Code expired for email " + email);
+            failedCounter.increment();
             return false;
         }
 
-        if (!codeInfo.getCode().equals(code)) {
+        if (codeInfo.getAttempts() >= maxAttempts) {
+            verificationCodeStore.remove(email);
+            log.warn("Verification failed: Too many attempts for email {}", email);
+            lockedCounter.increment();
+            return false;
+        }
+
+        if (code == null || !MessageDigest.isEqual(codeInfo.getCode().getBytes(StandardCharsets.UTF_8),
+                code.getBytes(StandardCharsets.UTF_8))) {
+            // Discard the code once the attempt budget is spent; a new one must be requested
+            if (verificationCodeStore.incrementAttempts(email) >= maxAttempts) {
+                verificationCodeStore.remove(email);
+                lockedCounter.increment();
+            } else {
+                failedCounter.increment();
+            }
             System.out.println("Verification failed: Invalid code for email " + email);
             return false;
         }
 
-        verificationCodes.remove(email);
+        verificationCodeStore.remove(email);
+        verifiedCounter.increment();
         System.out.println("Verification successful for email: " + email);
 
         User user = userRepository.findByEmail(email)
@@ -166,42 +222,24 @@ public class EmailVerificationService {
         
         user.setEnabled(true);
         userRepository.save(user);
+        principalCache.evict(user);
 
         return true;
     }
 
 
     public boolean hasPendingVerification(String email) {
-        VerificationCodeInfo codeInfo = verificationCodes.get(email);
-        if (codeInfo == null) {
+        Optional<VerificationCodeStore.VerificationCode> codeInfo = verificationCodeStore.find(email);
+        if (codeInfo.isEmpty()) {
             return false;
         }
         
-        if (LocalDateTime.now().isAfter(codeInfo.getExpirationTime())) {
-            verificationCodes.remove(email);
+        if (codeInfo.get().isExpired()) {
+            verificationCodeStore.remove(email);
             return false;
         }
         
         return true;
     }
-
-
-    private static class VerificationCodeInfo {
-        private final String code;
-        private final LocalDateTime expirationTime;
-
-        public VerificationCodeInfo(String code, LocalDateTime expirationTime) {
-            this.code = code;
-            this.expirationTime = expirationTime;
-        }
-
-        public String getCode() {
-            return code;
-        }
-
-        public LocalDateTime getExpirationTime() {
-            return expirationTime;
-        }
-    }
 }
 
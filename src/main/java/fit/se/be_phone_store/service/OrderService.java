@@ -21,9 +21,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -40,12 +42,15 @@ public class OrderService {
     private final OrderTrackingRepository orderTrackingRepository;
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
+    private final CartCache cartCache;
     private final ProductRepository productRepository;
     private final ProductColorRepository productColorRepository;
     private final ColorRepository colorRepository;
     private final ReviewRepository reviewRepository;
     private final AuthService authService;
     private final EmailService emailService;
+    private final UserStatsService userStatsService;
+    private final ProductReviewCache productReviewCache;
 
     private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'");
 
@@ -144,13 +149,15 @@ public class OrderService {
                 orderItem.setQuantity(buyNowItem.getQuantity());
                 orderItem.setUnitPrice(unitPrice);
 
-                OrderItem savedItem = orderItemRepository.save(orderItem);
-                createdOrderItems.add(savedItem);
+                createdOrderItems.add(orderItem);
 
                 // Update product stock
                 product.setStockQuantity(product.getStockQuantity() - buyNowItem.getQuantity());
                 productRepository.save(product);
             }
+            orderItemRepository.saveAll(createdOrderItems);
+
+            userStatsService.recordOrderCreated(savedOrder, createdOrderItems);
 
             // Build response
             return buildOrderResponse(savedOrder, createdOrderItems, currentUser);
@@ -161,8 +168,8 @@ public class OrderService {
         Cart cart = cartRepository.findByUserId(userId)
                 .orElseThrow(() -> new BadRequestException("Cart not found"));
 
-        // Get cart items
-        List<CartItem> cartItems = cartItemRepository.findByCart(cart);
+        // Get cart items with their products and colors
+        List<CartItem> cartItems = cartItemRepository.findByCartIdWithProductAndColor(cart.getId());
         if (cartItems.isEmpty()) {
             throw new BadRequestException("Giỏ hàng trống, không thể tạo đơn hàng");
         }
@@ -234,8 +241,7 @@ public class OrderService {
             orderItem.setQuantity(cartItem.getQuantity());
             orderItem.setUnitPrice(cartItem.getUnitPrice());
 
-            OrderItem savedItem = orderItemRepository.save(orderItem);
-            createdOrderItems.add(savedItem);
+            createdOrderItems.add(orderItem);
 
             // Update product stock (check ProductColor stock)
             Product product = cartItem.getProduct();
@@ -243,6 +249,7 @@ public class OrderService {
             product.setStockQuantity(product.getStockQuantity() - cartItem.getQuantity());
             productRepository.save(product);
         }
+        orderItemRepository.saveAll(createdOrderItems);
 
 
         if (request.getCartItemIds() != null && !request.getCartItemIds().isEmpty()) {
@@ -250,6 +257,9 @@ public class OrderService {
         } else {
             cartItemRepository.deleteByCart(cart);
         }
+        cartCache.invalidate(userId);
+
+        userStatsService.recordOrderCreated(savedOrder, createdOrderItems);
 
         // Build response
         return buildOrderResponse(savedOrder, createdOrderItems, currentUser);
@@ -356,8 +366,15 @@ public class OrderService {
         int end = Math.min(start + pageable.getPageSize(), orders.size());
         List<Order> pagedOrders = orders.subList(start, end);
 
+        // Items of the whole page in one query, grouped per order
+        Map<Long, List<OrderItem>> itemsByOrder = pagedOrders.isEmpty()
+                ? Map.of()
+                : orderItemRepository.findByOrderIdsWithProduct(
+                        pagedOrders.stream().map(Order::getId).collect(Collectors.toList())).stream()
+                .collect(Collectors.groupingBy(item -> item.getOrder().getId()));
+
         List<OrderListResponse.OrderItem> orderItems = pagedOrders.stream()
-                .map(this::mapToOrderListItem)
+                .map(order -> mapToOrderListItem(order, itemsByOrder.getOrDefault(order.getId(), List.of())))
                 .collect(Collectors.toList());
 
         OrderListResponse.PaginationInfo pagination = OrderListResponse.PaginationInfo.builder()
@@ -387,7 +404,7 @@ public class OrderService {
         Long userId = authService.getCurrentUserId();
         log.info("Getting order details for order {} by user {}", orderNumber, userId);
 
-        Order order = orderRepository.findByOrderNumber(orderNumber)
+        Order order = orderRepository.findWithUserByOrderNumber(orderNumber)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
 
         // Check if user can access this order
@@ -423,6 +440,7 @@ public class OrderService {
         }
 
         // Cancel order and restore stock
+        Order.OrderStatus oldStatus = order.getStatus();
         order.setStatus(Order.OrderStatus.CANCELLED);
         if (request != null && request.getReason() != null) {
             order.setNotes(order.getNotes() != null ?
@@ -430,6 +448,7 @@ public class OrderService {
                     "Cancel reason: " + request.getReason());
         }
         orderRepository.save(order);
+        userStatsService.recordOrderStatusChange(order, oldStatus, Order.OrderStatus.CANCELLED);
 
         // Restore product stock
         List<OrderItem> orderItems = orderItemRepository.findByOrder(order);
@@ -512,6 +531,7 @@ public class OrderService {
         Order.OrderStatus oldStatus = order.getStatus();
         order.setStatus(status);
         orderRepository.save(order);
+        userStatsService.recordOrderStatusChange(order, oldStatus, status);
 
         // Prepare response data
         Map<String, Object> responseData = new HashMap<>();
@@ -776,112 +796,87 @@ public class OrderService {
         }
         log.info("Order {} delivered at: {}", orderNumber, orderDeliveredDate);
 
-        // Create reviews for each product
-        List<SubmitOrderReviewResponse.ReviewedProduct> reviewedProducts = new ArrayList<>();
-        LocalDateTime reviewedAt = LocalDateTime.now();
-
+        // Every reviewed product must belong to the order
+        Set<Long> requestedProductIds = new LinkedHashSet<>();
         for (SubmitOrderReviewRequest.ProductReview reviewRequest : request.getReviews()) {
             Long productId = reviewRequest.getProduct_id();
-            log.info("Processing review for product ID: {}", productId);
-
-            // Check if product is in order
             if (!orderProductIds.contains(productId)) {
                 log.warn("Product {} is not in order {}", productId, orderNumber);
                 throw new BadRequestException(String.format("Sản phẩm ID %d không có trong đơn hàng", productId));
             }
+            requestedProductIds.add(productId);
+        }
 
-            // Get product
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Sản phẩm không tìm thấy"));
-
-            boolean reviewedInThisOrder = reviewRepository.existsByUserIdAndProductIdAndCreatedAtAfter(
-                    userId, productId, orderDeliveredDate);
-
-            if (reviewedInThisOrder) {
-                // Product already reviewed in this order - get existing review
-                Optional<Review> existingReview = reviewRepository.findByUserIdAndProductId(userId, productId);
-
-                if (existingReview.isPresent()) {
-                    Review review = existingReview.get();
-                    log.info("Product {} already reviewed in order {} by user {}, review ID: {}",
-                            productId, orderNumber, userId, review.getId());
-
-                    // Build response for already reviewed product
-                    SubmitOrderReviewResponse.ReviewedProduct reviewedProduct = SubmitOrderReviewResponse.ReviewedProduct.builder()
-                            .productId(product.getId())
-                            .productName(product.getName())
-                            .rating(review.getRating())
-                            .reviewId(review.getId())
-                            .status("already_reviewed")
-                            .message("Sản phẩm này đã được đánh giá trong đơn hàng này")
-                            .build();
+        // Resolve products and this user's existing reviews for them in two queries
+        Map<Long, Product> products = productRepository.findAllById(requestedProductIds).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+        Map<Long, Review> reviewsByProduct = reviewRepository.findByUserIdAndProductIdIn(userId, requestedProductIds).stream()
+                .collect(Collectors.toMap(review -> review.getProduct().getId(), review -> review));
 
-                    reviewedProducts.add(reviewedProduct);
-                    continue; // Skip creating new review
-                }
-            }
+        // Decide per product in request order; a product repeated in the request sees the earlier outcome
+        List<Review> reviewsToSave = new ArrayList<>();
+        Set<Long> createdInRequest = new HashSet<>();
+        List<SubmitOrderReviewResponse.ReviewedProduct> reviewedProducts = new ArrayList<>();
+        List<Review> reviewOfProduct = new ArrayList<>(); // parallel to reviewedProducts, IDs known after save
+        int createdCount = 0;
+        int ratingDelta = 0;
+        LocalDateTime reviewedAt = LocalDateTime.now();
 
-            // Check if review exists from a different order (created before this order was delivered)
-            Optional<Review> existingReview = reviewRepository.findByUserIdAndProductId(userId, productId);
-            if (existingReview.isPresent()) {
-                Review oldReview = existingReview.get();
-
-
-                if (oldReview.getCreatedAt().isBefore(orderDeliveredDate)) {
-                    log.info("Product {} was reviewed in a different order, updating review ID {} for order {}",
-                            productId, oldReview.getId(), orderNumber);
-
-                    // Update existing review
-                    oldReview.setRating(reviewRequest.getRating());
-                    oldReview.setComment(reviewRequest.getComment());
-                    Review updatedReview = reviewRepository.save(oldReview);
-
-                    // Build response for updated review
-                    SubmitOrderReviewResponse.ReviewedProduct reviewedProduct = SubmitOrderReviewResponse.ReviewedProduct.builder()
-                            .productId(product.getId())
-                            .productName(product.getName())
-                            .rating(reviewRequest.getRating())
-                            .reviewId(updatedReview.getId())
-                            .status("updated")
-                            .message("Đã cập nhật đánh giá từ đơn hàng khác")
-                            .build();
+        for (SubmitOrderReviewRequest.ProductReview reviewRequest : request.getReviews()) {
+            Long productId = reviewRequest.getProduct_id();
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new ResourceNotFoundException("Sản phẩm không tìm thấy");
+            }
 
-                    reviewedProducts.add(reviewedProduct);
-                    continue;
-                }
+            Review review = reviewsByProduct.get(productId);
+            if (review != null && (createdInRequest.contains(productId)
+                    || (review.getCreatedAt() != null && !review.getCreatedAt().isBefore(orderDeliveredDate)))) {
+                // Product already reviewed in this order - keep the existing review
+                log.info("Product {} already reviewed in order {} by user {}", productId, orderNumber, userId);
+                reviewedProducts.add(buildReviewedProduct(product, review.getRating(), "already_reviewed"));
+                reviewOfProduct.add(review);
+            } else if (review != null) {
+                // Reviewed in a different order (before this order was delivered) - update it
+                log.info("Product {} was reviewed in a different order, updating review ID {} for order {}",
+                        productId, review.getId(), orderNumber);
+                ratingDelta += reviewRequest.getRating() - review.getRating();
+                review.setRating(reviewRequest.getRating());
+                review.setComment(reviewRequest.getComment());
+                reviewsToSave.add(review);
+                reviewedProducts.add(buildReviewedProduct(product, reviewRequest.getRating(), "updated"));
+                reviewOfProduct.add(review);
+            } else {
+                // Create new review (first time reviewing this product)
+                review = new Review();
+                review.setUser(order.getUser());
+                review.setProduct(product);
+                review.setRating(reviewRequest.getRating());
+                review.setComment(reviewRequest.getComment());
+                reviewsToSave.add(review);
+                reviewsByProduct.put(productId, review);
+                createdInRequest.add(productId);
+                createdCount++;
+                ratingDelta += reviewRequest.getRating();
+                reviewedProducts.add(buildReviewedProduct(product, reviewRequest.getRating(), "created"));
+                reviewOfProduct.add(review);
             }
+        }
 
-            // Create new review (first time reviewing this product)
-            Review review = new Review();
-            review.setUser(order.getUser());
-            review.setProduct(product);
-            review.setRating(reviewRequest.getRating());
-            review.setComment(reviewRequest.getComment());
-
-            Review savedReview = reviewRepository.save(review);
-            log.info("Created review ID {} for product ID {} in order {}", savedReview.getId(), productId, orderNumber);
-
-            // Build reviewed product response
-            SubmitOrderReviewResponse.ReviewedProduct reviewedProduct = SubmitOrderReviewResponse.ReviewedProduct.builder()
-                    .productId(product.getId())
-                    .productName(product.getName())
-                    .rating(reviewRequest.getRating())
-                    .reviewId(savedReview.getId())
-                    .status("created")
-                    .message("Đánh giá đã được tạo thành công")
-                    .build();
+        reviewRepository.saveAll(reviewsToSave);
+        reviewsToSave.forEach(review -> productReviewCache.invalidate(review.getProduct().getId()));
+        userStatsService.recordReviewChanges(userId, createdCount, ratingDelta);
+        log.info("Order {} review submission: {} created, {} saved in total", orderNumber, createdCount, reviewsToSave.size());
 
-            reviewedProducts.add(reviewedProduct);
+        for (int i = 0; i < reviewedProducts.size(); i++) {
+            reviewedProducts.get(i).setReviewId(reviewOfProduct.get(i).getId());
         }
 
         if (reviewedProducts.isEmpty()) {
             throw new BadRequestException("Không có sản phẩm nào được xử lý");
         }
 
-        // Count created, updated, and already reviewed
-        long createdCount = reviewedProducts.stream()
-                .filter(p -> "created".equals(p.getStatus()))
-                .count();
+        // Count updated and already reviewed (created is counted above)
         long updatedCount = reviewedProducts.stream()
                 .filter(p -> "updated".equals(p.getStatus()))
                 .count();
@@ -917,6 +912,21 @@ public class OrderService {
         return ApiResponse.success(message, responseData);
     }
 
+    private SubmitOrderReviewResponse.ReviewedProduct buildReviewedProduct(Product product, Integer rating, String status) {
+        String message = switch (status) {
+            case "already_reviewed" -> "Sản phẩm này đã được đánh giá trong đơn hàng này";
+            case "updated" -> "Đã cập nhật đánh giá từ đơn hàng khác";
+            default -> "Đánh giá đã được tạo thành công";
+        };
+        return SubmitOrderReviewResponse.ReviewedProduct.builder()
+                .productId(product.getId())
+                .productName(product.getName())
+                .rating(rating)
+                .status(status)
+                .message(message)
+                .build();
+    }
+
     /**
      * Get all orders (Admin) with filters
      */
@@ -950,8 +960,17 @@ public class OrderService {
         Page<Order> ordersPage = orderRepository.findOrdersWithFilters(
                 statusEnum, userId, fromDateTime, toDateTime, search, pageable);
 
+        // Item counts of the whole page in one grouped query
+        Map<Long, Long> itemCounts = new HashMap<>();
+        if (ordersPage.hasContent()) {
+            List<Long> orderIds = ordersPage.getContent().stream().map(Order::getId).collect(Collectors.toList());
+            for (Object[] row : orderItemRepository.countItemsByOrderIds(orderIds)) {
+                itemCounts.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+        }
+
         List<AdminOrderListResponse.AdminOrderItem> orderItems = ordersPage.getContent().stream()
-                .map(this::mapToAdminOrderItem)
+                .map(order -> mapToAdminOrderItem(order, itemCounts.getOrDefault(order.getId(), 0L).intValue()))
                 .collect(Collectors.toList());
 
         AdminOrderListResponse.PaginationInfo pagination = AdminOrderListResponse.PaginationInfo.builder()
@@ -1005,6 +1024,7 @@ public class OrderService {
                         order.getNotes() + "\n" + request.getNote() : request.getNote());
             }
             orderRepository.save(order);
+            userStatsService.recordOrderStatusChange(order, oldStatus, newStatus);
 
             // Create tracking event with tracking info
             OrderTracking tracking = new OrderTracking();
@@ -1267,9 +1287,7 @@ public class OrderService {
         }
     }
 
-    private OrderListResponse.OrderItem mapToOrderListItem(Order order) {
-        List<OrderItem> items = orderItemRepository.findByOrder(order);
-
+    private OrderListResponse.OrderItem mapToOrderListItem(Order order, List<OrderItem> items) {
         List<OrderListResponse.ItemPreview> preview = items.stream()
                 .limit(3)
                 .map(item -> OrderListResponse.ItemPreview.builder()
@@ -1295,7 +1313,7 @@ public class OrderService {
     }
 
     private OrderDetailResponseNew mapToOrderDetailResponseNew(Order order) {
-        List<OrderItem> items = orderItemRepository.findByOrder(order);
+        List<OrderItem> items = orderItemRepository.findByOrderIdWithProductAndColor(order.getId());
 
         List<OrderDetailResponseNew.OrderItemDetail> orderItems = items.stream()
                 .map(item -> OrderDetailResponseNew.OrderItemDetail.builder()
@@ -1313,8 +1331,8 @@ public class OrderService {
                         .build())
                 .collect(Collectors.toList());
 
-        // Build status history from tracking
-        List<OrderDetailResponseNew.StatusHistory> statusHistory = buildStatusHistoryFromTracking(order);
+        // Status history and tracking info come from the same tracking events
+        List<OrderTracking> trackingHistory = orderTrackingRepository.findByOrderId(order.getId());
 
         return OrderDetailResponseNew.builder()
                 .id(order.getId())
@@ -1331,8 +1349,8 @@ public class OrderService {
                 .shipping_address(order.getShippingAddress())
                 .note(order.getNotes())
                 .items(orderItems)
-                .status_history(buildStatusHistoryFromTracking(order))
-                .tracking_info(buildTrackingInfoFromLatestTracking(order))
+                .status_history(buildStatusHistoryFromTracking(trackingHistory))
+                .tracking_info(buildTrackingInfoFromLatestTracking(trackingHistory))
                 .created_at(order.getCreatedAt())
                 .updated_at(order.getUpdatedAt() != null ? order.getUpdatedAt() : order.getCreatedAt())
                 .can_cancel(order.canBeCancelled())
@@ -1340,9 +1358,7 @@ public class OrderService {
                 .build();
     }
 
-    private AdminOrderListResponse.AdminOrderItem mapToAdminOrderItem(Order order) {
-        List<OrderItem> items = orderItemRepository.findByOrder(order);
-
+    private AdminOrderListResponse.AdminOrderItem mapToAdminOrderItem(Order order, int itemsCount) {
         return AdminOrderListResponse.AdminOrderItem.builder()
                 .id(order.getId())
                 .order_number(order.getOrderNumber())
@@ -1355,7 +1371,7 @@ public class OrderService {
                 .total_amount(order.getTotalAmount())
                 .status(order.getStatus().name())
                 .payment_method(order.getPaymentMethod() != null ? order.getPaymentMethod().name() : "COD")
-                .items_count(items.size())
+                .items_count(itemsCount)
                 .shipping_address(order.getShippingAddress())
                 .created_at(order.getCreatedAt() != null ? order.getCreatedAt().format(ISO_FORMATTER) : null)
                 .build();
@@ -1389,9 +1405,7 @@ public class OrderService {
     /**
      * Build status history from tracking events
      */
-    private List<OrderDetailResponseNew.StatusHistory> buildStatusHistoryFromTracking(Order order) {
-        List<OrderTracking> trackingHistory = orderTrackingRepository.findByOrderId(order.getId());
-
+    private List<OrderDetailResponseNew.StatusHistory> buildStatusHistoryFromTracking(List<OrderTracking> trackingHistory) {
         return trackingHistory.stream()
                 .map(tracking -> OrderDetailResponseNew.StatusHistory.builder()
                         .status(tracking.getStatus().name())
@@ -1404,9 +1418,7 @@ public class OrderService {
     /**
      * Build tracking info from latest tracking event
      */
-    private OrderDetailResponseNew.TrackingInfo buildTrackingInfoFromLatestTracking(Order order) {
-        List<OrderTracking> trackingHistory = orderTrackingRepository.findByOrderId(order.getId());
-
+    private OrderDetailResponseNew.TrackingInfo buildTrackingInfoFromLatestTracking(List<OrderTracking> trackingHistory) {
         // Find latest tracking info from tracking events (most recent that has tracking info)
         String trackingNumber = "";
         String shippingPartner = "";
@@ -0,0 +1,77 @@
+package fit.se.be_phone_store.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import fit.se.be_phone_store.dto.response.product.ProductResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Product Review Cache
+ * Per-product digest of the reviews shown on the product detail page (recent reviews and
+ * rating summary), invalidated by every review write. The TTL bounds staleness from changes
+ * made outside the review flows (reviewer name changes).
+ */
+@Component
+@Slf4j
+public class ProductReviewCache {
+
+    private final Cache<Long, ReviewDigest> digests;
+
+    public ProductReviewCache(@Value("${app.product.review-cache.max-size:10000}") long maxSize,
+                              @Value("${app.product.review-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.digests = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * Get review digest of a product, loading it on a miss
+     */
+    public ReviewDigest getDigest(Long productId, Function<Long, ReviewDigest> loader) {
+        return digests.get(productId, loader);
+    }
+
+    /**
+     * Invalidate cached review digest of a product.
+     * Invalidates again after commit so a concurrent read cannot re-cache the old state.
+     */
+    public void invalidate(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        evict(productId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(productId);
+                }
+            });
+        }
+    }
+
+    private void evict(Long productId) {
+        digests.invalidate(productId);
+        log.debug("Evicted cached reviews for product: {}", productId);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ReviewDigest {
+        private final List<ProductResponse.ReviewInfo> recentReviews;
+        private final int totalReviews;
+        private final double averageRating;
+    }
+}
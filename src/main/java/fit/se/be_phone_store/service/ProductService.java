@@ -4,6 +4,9 @@ import fit.se.be_phone_store.dto.request.product.*;
 import fit.se.be_phone_store.dto.request.product.ProductFilterRequest;
 import fit.se.be_phone_store.dto.response.ApiResponse;
 import fit.se.be_phone_store.dto.response.PagedApiResponse;
+import fit.se.be_phone_store.dto.response.brand.BrandResponse;
+import fit.se.be_phone_store.dto.response.category.CategoryResponse;
+import fit.se.be_phone_store.dto.response.color.ColorResponse;
 import fit.se.be_phone_store.dto.response.product.ProductResponse;
 import fit.se.be_phone_store.dto.response.product.StockUpdateResponse;
 import fit.se.be_phone_store.entity.*;
@@ -13,6 +16,7 @@ import fit.se.be_phone_store.exception.UnauthorizedException;
 import fit.se.be_phone_store.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -44,6 +48,9 @@ public class ProductService {
     private final ReviewRepository reviewRepository;
     private final CloudinaryService cloudinaryService;
     private final AuthService authService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReferenceDataService referenceDataService;
+    private final ProductReviewCache productReviewCache;
 
     /**
      * Get products list with search, filter and pagination (User API)
@@ -81,7 +88,7 @@ public class ProductService {
             productsPage = productRepository.findByIsActiveTrue(pageable);
         }
 
-        Page<ProductResponse> responsePage = productsPage.map(this::mapToProductResponse);
+        Page<ProductResponse> responsePage = mapToProductResponses(productsPage);
 
         return PagedApiResponse.success("Lấy danh sách sản phẩm thành công", responsePage);
     }
@@ -198,6 +205,7 @@ public class ProductService {
 
             Product savedProduct = productRepository.save(product);
             log.info("Product saved with ID: {}", savedProduct.getId());
+            eventPublisher.publishEvent(new ReferenceDataChangedEvent("product"));
 
             // Add available colors
             if (request.getColorIds() != null && !request.getColorIds().isEmpty()) {
@@ -274,6 +282,7 @@ public class ProductService {
         ProductResponse response = mapToProductResponse(updatedProduct);
 
         log.info("Product updated successfully: {}", updatedProduct.getId());
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("product"));
         return ApiResponse.success("Cập nhật sản phẩm thành công", response);
     }
 
@@ -303,6 +312,7 @@ public class ProductService {
         response.put("deleted_product_id", id);
 
         log.info("Product deleted successfully: {}", id);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("product"));
         return ApiResponse.success("Xóa sản phẩm thành công", response);
     }
 
@@ -369,21 +379,33 @@ public class ProductService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Sản phẩm không tồn tại"));
 
-        List<Color> addedColors = new ArrayList<>();
+        Set<Long> colorIds = new LinkedHashSet<>(request.getColorIds());
+        Map<Long, Color> colorsById = colorRepository.findAllById(colorIds).stream()
+                .collect(Collectors.toMap(Color::getId, color -> color));
+        for (Long colorId : colorIds) {
+            if (!colorsById.containsKey(colorId)) {
+                throw new ResourceNotFoundException("Màu không tồn tại: " + colorId);
+            }
+        }
 
-        for (Long colorId : request.getColorIds()) {
-            Color color = colorRepository.findById(colorId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Màu không tồn tại: " + colorId));
+        // Skip colors the product already has, then insert the rest in one batch
+        Set<Long> existingColorIds = productColorRepository.findByProductId(productId).stream()
+                .map(productColor -> productColor.getColor().getId())
+                .collect(Collectors.toSet());
 
-            // Check if already exists
-            if (!productColorRepository.existsByProductIdAndColorId(productId, colorId)) {
+        List<Color> addedColors = new ArrayList<>();
+        List<ProductColor> newProductColors = new ArrayList<>();
+        for (Long colorId : colorIds) {
+            if (!existingColorIds.contains(colorId)) {
+                Color color = colorsById.get(colorId);
                 ProductColor productColor = new ProductColor();
                 productColor.setProduct(product);
                 productColor.setColor(color);
-                productColorRepository.save(productColor);
+                newProductColors.add(productColor);
                 addedColors.add(color);
             }
         }
+        productColorRepository.saveAll(newProductColors);
 
         // FIXED: Line 319 - Explicitly cast to avoid type inference issue
         List<Map<String, Object>> addedColorsInfo = addedColors.stream()
@@ -567,17 +589,23 @@ public class ProductService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Sản phẩm không tồn tại"));
 
-        List<Map<String, Object>> addedSpecs = new ArrayList<>();
+        // Existing specs keyed by name (case-insensitive, like the column collation)
+        Map<String, ProductSpecification> specsByName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (ProductSpecification spec : productSpecificationRepository.findByProductId(productId)) {
+            specsByName.putIfAbsent(spec.getSpecName(), spec);
+        }
 
+        List<ProductSpecification> specsToSave = new ArrayList<>();
+        List<ProductSpecification> createdSpecs = new ArrayList<>();
         for (ManageSpecificationsRequest.SpecificationItem specItem : request.getSpecifications()) {
-            // Check if spec already exists
-            Optional<ProductSpecification> existingSpec = productSpecificationRepository
-                    .findByProductAndSpecName(product, specItem.getSpecName());
+            ProductSpecification existingSpec = specsByName.get(specItem.getSpecName());
 
-            if (existingSpec.isPresent()) {
+            if (existingSpec != null) {
                 // Update existing spec
-                existingSpec.get().setSpecValue(specItem.getSpecValue());
-                productSpecificationRepository.save(existingSpec.get());
+                existingSpec.setSpecValue(specItem.getSpecValue());
+                if (existingSpec.getId() != null) {
+                    specsToSave.add(existingSpec);
+                }
             } else {
                 // Create new spec
                 ProductSpecification spec = new ProductSpecification();
@@ -585,15 +613,21 @@ public class ProductService {
                 spec.setSpecName(specItem.getSpecName());
                 spec.setSpecValue(specItem.getSpecValue());
 
-                ProductSpecification savedSpec = productSpecificationRepository.save(spec);
-
-                Map<String, Object> specMap = new HashMap<>();
-                specMap.put("id", savedSpec.getId());
-                specMap.put("spec_name", savedSpec.getSpecName());
-                specMap.put("spec_value", savedSpec.getSpecValue());
-                addedSpecs.add(specMap);
+                specsByName.put(spec.getSpecName(), spec);
+                specsToSave.add(spec);
+                createdSpecs.add(spec);
             }
         }
+        productSpecificationRepository.saveAll(specsToSave);
+
+        List<Map<String, Object>> addedSpecs = new ArrayList<>();
+        for (ProductSpecification savedSpec : createdSpecs) {
+            Map<String, Object> specMap = new HashMap<>();
+            specMap.put("id", savedSpec.getId());
+            specMap.put("spec_name", savedSpec.getSpecName());
+            specMap.put("spec_value", savedSpec.getSpecValue());
+            addedSpecs.add(specMap);
+        }
 
         Map<String, Object> response = new HashMap<>();
         response.put("product_id", productId);
@@ -678,7 +712,7 @@ public class ProductService {
 
         Page<Product> productsPage = productRepository.findAll(pageable);
 
-        Page<ProductResponse> responsePage = productsPage.map(this::mapToProductResponse);
+        Page<ProductResponse> responsePage = mapToProductResponses(productsPage);
 
         return PagedApiResponse.success("Lấy danh sách sản phẩm thành công", responsePage);
     }
@@ -712,15 +746,21 @@ public class ProductService {
     }
 
     private void addColorsToProduct(Product product, List<Long> colorIds) {
-        for (Long colorId : colorIds) {
-            if (!productColorRepository.existsByProductIdAndColorId(product.getId(), colorId)) {
-                Color color = colorRepository.findById(colorId).get();
+        // Color IDs were validated before the product was saved
+        Set<Long> existingColorIds = productColorRepository.findByProductId(product.getId()).stream()
+                .map(productColor -> productColor.getColor().getId())
+                .collect(Collectors.toSet());
+
+        List<ProductColor> newProductColors = new ArrayList<>();
+        for (Long colorId : new LinkedHashSet<>(colorIds)) {
+            if (!existingColorIds.contains(colorId)) {
                 ProductColor productColor = new ProductColor();
                 productColor.setProduct(product);
-                productColor.setColor(color);
-                productColorRepository.save(productColor);
+                productColor.setColor(colorRepository.getReferenceById(colorId));
+                newProductColors.add(productColor);
             }
         }
+        productColorRepository.saveAll(newProductColors);
     }
 
 //    private List<Map<String, Object>> uploadProductImages(Product product, MultipartFile[] images,
@@ -908,12 +948,37 @@ public class ProductService {
         return uploadedImages;
     }
 
+    /**
+     * Product card fetch plan: the page of products plus one query for their primary images
+     */
+    private Page<ProductResponse> mapToProductResponses(Page<Product> productsPage) {
+        Map<Long, String> primaryImages = new HashMap<>();
+        if (productsPage.hasContent()) {
+            List<Long> productIds = productsPage.getContent().stream()
+                    .map(Product::getId)
+                    .collect(Collectors.toList());
+            for (Object[] row : productImageRepository.findPrimaryImageUrlsByProductIds(productIds)) {
+                primaryImages.putIfAbsent((Long) row[0], (String) row[1]);
+            }
+        }
+        return productsPage.map(product ->
+                mapToProductResponse(product, primaryImages.getOrDefault(product.getId(), "")));
+    }
+
     private ProductResponse mapToProductResponse(Product product) {
         // Get primary image
         String primaryImage = productImageRepository.findByProductIdAndIsPrimaryTrue(product.getId())
                 .map(ProductImage::getImageUrl)
                 .orElse("");
 
+        return mapToProductResponse(product, primaryImage);
+    }
+
+    private ProductResponse mapToProductResponse(Product product, String primaryImage) {
+        // Names come from the reference data snapshot; the lazy associations are only
+        // initialized when the snapshot does not know the ID yet
+        ReferenceDataSnapshot referenceData = referenceDataService.getSnapshot();
+
         return ProductResponse.builder()
                 .id(product.getId())
                 .name(product.getName())
@@ -922,19 +987,9 @@ public class ProductService {
                 .price(product.getPrice())
                 .discountPrice(product.getDiscountPrice())
                 .stockQuantity(product.getStockQuantity())
-                .category(ProductResponse.CategoryInfo.builder()
-                        .id(product.getCategory().getId())
-                        .name(product.getCategory().getName())
-                        .build())
-                .brand(ProductResponse.BrandInfo.builder()
-                        .id(product.getBrand().getId())
-                        .name(product.getBrand().getName())
-                        .build())
-                .defaultColor(ProductResponse.ColorInfo.builder()
-                        .id(product.getColor().getId())
-                        .colorName(product.getColor().getColorName())
-                        .hexCode(product.getColor().getHexCode())
-                        .build())
+                .category(mapToCategoryInfo(product.getCategory(), referenceData))
+                .brand(mapToBrandInfo(product.getBrand(), referenceData))
+                .defaultColor(mapToColorInfo(product.getColor(), referenceData))
                 .primaryImage(primaryImage)
                 .isActive(product.getIsActive())
                 .createdAt(product.getCreatedAt())
@@ -946,14 +1001,7 @@ public class ProductService {
         ProductResponse response = mapToProductResponse(product);
 
         // Add available colors
-        List<Color> availableColors = productColorRepository.findColorsByProductId(product.getId());
-        response.setAvailableColors(availableColors.stream()
-                .map(color -> ProductResponse.ColorInfo.builder()
-                        .id(color.getId())
-                        .colorName(color.getColorName())
-                        .hexCode(color.getHexCode())
-                        .build())
-                .collect(Collectors.toList()));
+        response.setAvailableColors(mapToAvailableColors(product.getId()));
 
         // Add images
         List<ProductImage> images = productImageRepository.findByProductIdOrderByIsPrimaryDesc(product.getId());
@@ -976,12 +1024,29 @@ public class ProductService {
                         .build())
                 .collect(Collectors.toList()));
 
-        // Get reviews for this product
-        // Note: Assuming ReviewRepository has findByProductId method
-        // If not available, you can use: reviewRepository.findByProduct(product)
-        List<Review> reviews = product.getReviews() != null ? product.getReviews() : new ArrayList<>();
-        response.setReviews(reviews.stream()
-                .limit(5) // Limit recent reviews
+        // Recent reviews and rating summary, cached per product until the next review write
+        ProductReviewCache.ReviewDigest reviews = productReviewCache.getDigest(product.getId(), this::loadReviewDigest);
+        response.setReviews(reviews.getRecentReviews());
+        response.setAverageRating(reviews.getAverageRating());
+        response.setTotalReviews(reviews.getTotalReviews());
+
+        // Add category and brand descriptions
+        ReferenceDataSnapshot referenceData = referenceDataService.getSnapshot();
+        CategoryResponse category = referenceData.getCategory(product.getCategory().getId());
+        BrandResponse brand = referenceData.getBrand(product.getBrand().getId());
+        response.getCategory().setDescription(category != null
+                ? category.getDescription() : product.getCategory().getDescription());
+        response.getBrand().setDescription(brand != null
+                ? brand.getDescription() : product.getBrand().getDescription());
+
+        return response;
+    }
+
+    private ProductReviewCache.ReviewDigest loadReviewDigest(Long productId) {
+        // Recent reviews with their users, totals from the grouped rating summary
+        List<Review> reviews = reviewRepository.findPageByProductIdWithUser(productId, null,
+                PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"))));
+        List<ProductResponse.ReviewInfo> recentReviews = reviews.stream()
                 .map(review -> ProductResponse.ReviewInfo.builder()
                         .id(review.getId())
                         .user(ProductResponse.UserInfo.builder()
@@ -992,21 +1057,78 @@ public class ProductService {
                         .comment(review.getComment())
                         .createdAt(review.getCreatedAt())
                         .build())
-                .collect(Collectors.toList()));
+                .collect(Collectors.toList());
 
         // Calculate average rating
-        Double averageRating = reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
-        response.setAverageRating(averageRating);
-        response.setTotalReviews(reviews.size());
+        long totalReviews = 0;
+        long ratingSum = 0;
+        for (Object[] row : reviewRepository.countReviewsByRatingForProduct(productId)) {
+            long count = ((Number) row[1]).longValue();
+            totalReviews += count;
+            ratingSum += ((Number) row[0]).intValue() * count;
+        }
+        return new ProductReviewCache.ReviewDigest(recentReviews, (int) totalReviews,
+                totalReviews > 0 ? (double) ratingSum / totalReviews : 0.0);
+    }
 
-        // Add category and brand descriptions
-        response.getCategory().setDescription(product.getCategory().getDescription());
-        response.getBrand().setDescription(product.getBrand().getDescription());
+    private ProductResponse.CategoryInfo mapToCategoryInfo(Category category, ReferenceDataSnapshot referenceData) {
+        CategoryResponse cached = referenceData.getCategory(category.getId());
+        return ProductResponse.CategoryInfo.builder()
+                .id(category.getId())
+                .name(cached != null ? cached.getName() : category.getName())
+                .build();
+    }
 
-        return response;
+    private ProductResponse.BrandInfo mapToBrandInfo(Brand brand, ReferenceDataSnapshot referenceData) {
+        BrandResponse cached = referenceData.getBrand(brand.getId());
+        return ProductResponse.BrandInfo.builder()
+                .id(brand.getId())
+                .name(cached != null ? cached.getName() : brand.getName())
+                .build();
+    }
+
+    private ProductResponse.ColorInfo mapToColorInfo(Color color, ReferenceDataSnapshot referenceData) {
+        ColorResponse cached = referenceData.getColor(color.getId());
+        return ProductResponse.ColorInfo.builder()
+                .id(color.getId())
+                .colorName(cached != null ? cached.getColorName() : color.getColorName())
+                .hexCode(cached != null ? cached.getHexCode() : color.getHexCode())
+                .build();
+    }
+
+    private List<ProductResponse.ColorInfo> mapToAvailableColors(Long productId) {
+        ReferenceDataSnapshot referenceData = referenceDataService.getSnapshot();
+        List<Long> colorIds = productColorRepository.findColorIdsByProductId(productId);
+
+        Map<Long, ColorResponse> colors = new HashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long colorId : colorIds) {
+            ColorResponse cached = referenceData.getColor(colorId);
+            if (cached != null) {
+                colors.put(colorId, cached);
+            } else {
+                missingIds.add(colorId);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            for (Color color : colorRepository.findAllById(missingIds)) {
+                colors.put(color.getId(), ColorResponse.builder()
+                        .id(color.getId())
+                        .colorName(color.getColorName())
+                        .hexCode(color.getHexCode())
+                        .build());
+            }
+        }
+
+        return colorIds.stream()
+                .map(colors::get)
+                .filter(Objects::nonNull)
+                .map(color -> ProductResponse.ColorInfo.builder()
+                        .id(color.getId())
+                        .colorName(color.getColorName())
+                        .hexCode(color.getHexCode())
+                        .build())
+                .collect(Collectors.toList());
     }
 
     private Sort buildSort(String sortBy, String sortOrder) {
@@ -0,0 +1,168 @@
+package fit.se.be_phone_store.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import fit.se.be_phone_store.config.RateLimitProperties;
+import fit.se.be_phone_store.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RateLimitService - In-process token buckets keyed by client IP (route rules) or account
+ *
+ * Buckets live in a Caffeine cache bounded by app.rate-limit.max-buckets and evicted after
+ * idle-timeout, so memory stays bounded however many clients appear. Each bucket is guarded
+ * by its own monitor. With app.rate-limit.shared=true, requests that pass locally are also
+ * counted in a fixed window in rate_limit_counters so the limit holds across nodes.
+ */
+@Service
+@Slf4j
+public class RateLimitService {
+
+    private final RateLimitProperties properties;
+    private final SharedRateLimitCounter sharedCounter;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, TokenBucket> buckets;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RateLimitService(RateLimitProperties properties, SharedRateLimitCounter sharedCounter,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.sharedCounter = sharedCounter;
+        this.meterRegistry = meterRegistry;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+    }
+
+    /**
+     * Apply route rules to a request
+     * @param clientIp resolved client IP
+     * @param method HTTP method
+     * @param path request path relative to the context path
+     * @param parameters request parameters
+     * @return seconds the client must wait, or 0 if the request is allowed
+     */
+    public long checkRequest(String clientIp, String method, String path, Map<String, String[]> parameters) {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+
+        for (RateLimitProperties.Rule rule : properties.getRules()) {
+            if (matches(rule, method, path, parameters)) {
+                long retryAfter = tryConsume("ip:" + rule.getName(), clientIp, rule.getCapacity(), rule.getPeriod());
+                if (retryAfter > 0) {
+                    log.warn("Rate limit '{}' exceeded by {}", rule.getName(), clientIp);
+                    return retryAfter;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Apply a per-account limit (app.rate-limit.accounts.<name>)
+     * @throws RateLimitExceededException if the account is over its limit
+     */
+    public void checkAccount(String limitName, String account) {
+        RateLimitProperties.Limit limit = properties.getAccounts().get(limitName);
+        if (!properties.isEnabled() || limit == null || account == null) {
+            return;
+        }
+
+        long retryAfter = tryConsume("account:" + limitName, account.toLowerCase(), limit.getCapacity(), limit.getPeriod());
+        if (retryAfter > 0) {
+            log.warn("Rate limit '{}' exceeded for account {}", limitName, account);
+            throw new RateLimitExceededException("Quá nhiều yêu cầu, vui lòng thử lại sau", retryAfter);
+        }
+    }
+
+    private boolean matches(RateLimitProperties.Rule rule, String method, String path, Map<String, String[]> parameters) {
+        if (rule.getMethod() != null && !rule.getMethod().equalsIgnoreCase(method)) {
+            return false;
+        }
+        if (rule.getParam() != null && !parameters.containsKey(rule.getParam())) {
+            return false;
+        }
+        for (String pattern : rule.getPatterns()) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long tryConsume(String limitName, String key, int capacity, Duration period) {
+        String bucketKey = limitName + "|" + key;
+        TokenBucket bucket = buckets.get(bucketKey, k -> new TokenBucket(capacity, period));
+
+        long waitNanos = bucket.tryConsume(System.nanoTime());
+        if (waitNanos == 0 && properties.isShared()) {
+            waitNanos = consumeShared(bucketKey, capacity, period);
+        }
+
+        if (waitNanos > 0) {
+            meterRegistry.counter("rate_limit.rejected", "limit", limitName).increment();
+            return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        }
+        return 0;
+    }
+
+    private long consumeShared(String bucketKey, int capacity, Duration period) {
+        long periodMillis = Math.max(period.toMillis(), 1);
+        long now = System.currentTimeMillis();
+        long windowStart = now - (now % periodMillis);
+        long windowEnd = windowStart + periodMillis;
+
+        try {
+            int count = sharedCounter.increment(bucketKey + "@" + windowStart,
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(windowEnd), ZoneId.systemDefault()));
+            return count > capacity ? TimeUnit.MILLISECONDS.toNanos(windowEnd - now) : 0;
+        } catch (Exception e) {
+            // Fail open on the shared store; the local bucket still applies
+            log.error("Shared rate limit counter unavailable: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Token bucket refilled continuously at capacity per period
+     */
+    private static final class TokenBucket {
+        private final double capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long lastRefillNanos;
+
+        private TokenBucket(int capacity, Duration period) {
+            this.capacity = capacity;
+            this.refillPerNano = capacity / (double) Math.max(period.toNanos(), 1);
+            this.tokens = capacity;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        /**
+         * @return 0 if a token was taken, otherwise nanoseconds until one is available
+         */
+        private synchronized long tryConsume(long nowNanos) {
+            tokens = Math.min(capacity, tokens + (nowNanos - lastRefillNanos) * refillPerNano);
+            lastRefillNanos = nowNanos;
+
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / refillPerNano));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package fit.se.be_phone_store.service;
+
+/**
+ * Published after a category, brand, color or product mutation so the
+ * reference data snapshot is rebuilt once the transaction commits
+ */
+public class ReferenceDataChangedEvent {
+
+    private final String source;
+
+    public ReferenceDataChangedEvent(String source) {
+        this.source = source;
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
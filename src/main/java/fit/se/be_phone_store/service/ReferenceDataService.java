@@ -0,0 +1,201 @@
+package fit.se.be_phone_store.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fit.se.be_phone_store.dto.response.ApiResponse;
+import fit.se.be_phone_store.dto.response.brand.BrandResponse;
+import fit.se.be_phone_store.dto.response.category.CategoryResponse;
+import fit.se.be_phone_store.dto.response.color.ColorResponse;
+import fit.se.be_phone_store.repository.DataVersionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ReferenceDataService - Holds the current reference data snapshot
+ *
+ * The snapshot is built at startup and rebuilt after every committed category, brand,
+ * color or product mutation, then swapped in atomically. Readers never see a partially
+ * built snapshot; a failed rebuild keeps the previous one.
+ *
+ * Each mutation also bumps the reference_data counter in data_versions within its own
+ * transaction. Every node probes that counter on a fixed delay and rebuilds when it has
+ * moved past the value its snapshot was built from, so changes made on other nodes are
+ * picked up within one probe interval.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReferenceDataService {
+
+    private static final String CATEGORIES_MESSAGE = "Lấy danh sách danh mục thành công";
+    private static final String DATA_VERSION_NAME = "reference_data";
+
+    private final CategoryService categoryService;
+    private final BrandService brandService;
+    private final ColorService colorService;
+    private final ObjectMapper objectMapper;
+    private final DataVersionRepository dataVersionRepository;
+
+    private final AtomicReference<ReferenceDataSnapshot> current = new AtomicReference<>();
+    private final Object rebuildLock = new Object();
+
+    // data_versions value read before the current snapshot was built; written under rebuildLock
+    private volatile long sourceVersion = -1;
+
+    /**
+     * Get the current snapshot, building it on first use if startup has not loaded it yet
+     */
+    public ReferenceDataSnapshot getSnapshot() {
+        ReferenceDataSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            synchronized (rebuildLock) {
+                snapshot = current.get();
+                if (snapshot == null) {
+                    snapshot = rebuild();
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        ReferenceDataSnapshot snapshot = rebuild();
+        log.info("Reference data loaded: version {}", snapshot.getVersion());
+    }
+
+    /**
+     * Bump the shared counter in the transaction that publishes the change
+     */
+    @EventListener
+    @Transactional
+    public void recordChange(ReferenceDataChangedEvent event) {
+        if (dataVersionRepository.increment(DATA_VERSION_NAME) == 0
+                && dataVersionRepository.insertIfAbsent(DATA_VERSION_NAME) == 0) {
+            // Another node created the counter concurrently
+            dataVersionRepository.increment(DATA_VERSION_NAME);
+        }
+    }
+
+    /**
+     * Rebuild when a change has been committed since the current snapshot was built, on any node
+     */
+    @Scheduled(fixedDelayString = "${app.reference-data.version-check-interval-ms:10000}")
+    public void checkSourceVersion() {
+        try {
+            if (readSourceVersion() != sourceVersion) {
+                ReferenceDataSnapshot snapshot = rebuild();
+                log.info("Reference data rebuilt after a change on another node: version {}", snapshot.getVersion());
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to check reference data version, keeping version {}", versionOf(current.get()), e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        try {
+            ReferenceDataSnapshot snapshot = rebuild();
+            log.info("Reference data rebuilt after {} change: version {}", event.getSource(), snapshot.getVersion());
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild reference data after {} change, keeping version {}",
+                    event.getSource(), versionOf(current.get()), e);
+        }
+    }
+
+    /**
+     * Rebuilds are serialized so a snapshot started later is never replaced by an older one
+     */
+    private ReferenceDataSnapshot rebuild() {
+        synchronized (rebuildLock) {
+            // Read first: a change committed while building is then caught by the next probe
+            long version = readSourceVersion();
+            ReferenceDataSnapshot snapshot = buildNext();
+            sourceVersion = version;
+            return snapshot;
+        }
+    }
+
+    private long readSourceVersion() {
+        return dataVersionRepository.findVersion(DATA_VERSION_NAME).orElse(0L);
+    }
+
+    private ReferenceDataSnapshot buildNext() {
+        ApiResponse<List<CategoryResponse>> categories = categoryService.getAllCategories();
+        categories.setMessage(CATEGORIES_MESSAGE);
+        ApiResponse<List<BrandResponse>> brands = brandService.getAllBrands();
+        ApiResponse<List<ColorResponse>> colors = colorService.getAllColors();
+
+        ReferenceDataSnapshot.Payload categoriesPayload = serialize(categories);
+        ReferenceDataSnapshot.Payload brandsPayload = serialize(brands);
+        ReferenceDataSnapshot.Payload colorsPayload = serialize(colors);
+
+        return current.updateAndGet(previous -> new ReferenceDataSnapshot(
+                versionOf(previous) + 1,
+                byId(categories.getData(), CategoryResponse::getId),
+                byId(brands.getData(), BrandResponse::getId),
+                byId(colors.getData(), ColorResponse::getId),
+                categoriesPayload,
+                brandsPayload,
+                colorsPayload));
+    }
+
+    private long versionOf(ReferenceDataSnapshot snapshot) {
+        return snapshot != null ? snapshot.getVersion() : 0;
+    }
+
+    private <T> Map<Long, T> byId(List<T> items, Function<T, Long> idGetter) {
+        return items.stream().collect(Collectors.toMap(idGetter, Function.identity()));
+    }
+
+    private ReferenceDataSnapshot.Payload serialize(ApiResponse<?> response) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            // The envelope timestamp changes on every rebuild, so the ETag covers the data only
+            byte[] data = objectMapper.writeValueAsBytes(response.getData());
+            return new ReferenceDataSnapshot.Payload(json, gzip(json), etag(data));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize reference data", e);
+        }
+    }
+
+    private byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private String etag(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package fit.se.be_phone_store.service;
+
+import fit.se.be_phone_store.dto.response.brand.BrandResponse;
+import fit.se.be_phone_store.dto.response.category.CategoryResponse;
+import fit.se.be_phone_store.dto.response.color.ColorResponse;
+
+import java.util.Map;
+
+/**
+ * Reference Data Snapshot
+ * Immutable view of categories, brands and colors for one version. Lookups by ID serve
+ * the product mappers; the list endpoints are served from the pre-serialized payloads.
+ */
+public final class ReferenceDataSnapshot {
+
+    private final long version;
+    private final Map<Long, CategoryResponse> categories;
+    private final Map<Long, BrandResponse> brands;
+    private final Map<Long, ColorResponse> colors;
+    private final Payload categoriesPayload;
+    private final Payload brandsPayload;
+    private final Payload colorsPayload;
+
+    ReferenceDataSnapshot(long version,
+                          Map<Long, CategoryResponse> categories,
+                          Map<Long, BrandResponse> brands,
+                          Map<Long, ColorResponse> colors,
+                          Payload categoriesPayload,
+                          Payload brandsPayload,
+                          Payload colorsPayload) {
+        this.version = version;
+        this.categories = Map.copyOf(categories);
+        this.brands = Map.copyOf(brands);
+        this.colors = Map.copyOf(colors);
+        this.categoriesPayload = categoriesPayload;
+        this.brandsPayload = brandsPayload;
+        this.colorsPayload = colorsPayload;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the category, or null if it is not in this snapshot
+     */
+    public CategoryResponse getCategory(Long id) {
+        return id != null ? categories.get(id) : null;
+    }
+
+    /**
+     * @return the brand, or null if it is not in this snapshot
+     */
+    public BrandResponse getBrand(Long id) {
+        return id != null ? brands.get(id) : null;
+    }
+
+    /**
+     * @return the color, or null if it is not in this snapshot
+     */
+    public ColorResponse getColor(Long id) {
+        return id != null ? colors.get(id) : null;
+    }
+
+    public Payload getCategoriesPayload() {
+        return categoriesPayload;
+    }
+
+    public Payload getBrandsPayload() {
+        return brandsPayload;
+    }
+
+    public Payload getColorsPayload() {
+        return colorsPayload;
+    }
+
+    /**
+     * Serialized ApiResponse body with its gzip form and a content-derived ETag
+     */
+    public static final class Payload {
+
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String etag;
+
+        Payload(byte[] json, byte[] gzip, String etag) {
+            this.json = json;
+            this.gzip = gzip;
+            this.etag = etag;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * Shared serialized bytes; callers must not modify them
+         */
+        public byte[] getJson() {
+            return json;
+        }
+
+        /**
+         * Shared gzip bytes; callers must not modify them
+         */
+        public byte[] getGzip() {
+            return gzip;
+        }
+    }
+}
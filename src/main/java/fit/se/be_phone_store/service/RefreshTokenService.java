@@ -0,0 +1,148 @@
+package fit.se.be_phone_store.service;
+
+import fit.se.be_phone_store.entity.RefreshTokenFamily;
+import fit.se.be_phone_store.entity.User;
+import fit.se.be_phone_store.exception.AuthenticationException;
+import fit.se.be_phone_store.repository.RefreshTokenFamilyRepository;
+import fit.se.be_phone_store.util.AuthenticatedUser;
+import fit.se.be_phone_store.util.JwtUtils;
+import fit.se.be_phone_store.util.PrincipalCache;
+import fit.se.be_phone_store.util.VerifiedJwt;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * RefreshTokenService - Issues and rotates refresh tokens in families
+ *
+ * Each login starts a family; every refresh replaces the family's current token ID.
+ * Presenting a token that is no longer current means it was stolen or replayed,
+ * so the whole family is revoked.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class RefreshTokenService {
+
+    private static final String INVALID_REFRESH_TOKEN = "Refresh token không hợp lệ hoặc đã hết hạn";
+
+    private final RefreshTokenFamilyRepository refreshTokenFamilyRepository;
+    private final JwtUtils jwtUtils;
+    private final PrincipalCache principalCache;
+
+    /**
+     * Start a new family for a login
+     * @return refresh token
+     */
+    public String issue(User user) {
+        return startFamily(user.getId(), user.getEmail());
+    }
+
+    /**
+     * Exchange a refresh token for the next token of its family
+     */
+    @Transactional(noRollbackFor = AuthenticationException.class)
+    public RotatedRefreshToken rotate(String refreshToken) {
+        if (refreshToken == null) {
+            throw new AuthenticationException(INVALID_REFRESH_TOKEN);
+        }
+        VerifiedJwt token = jwtUtils.verifyJwtToken(refreshToken)
+                .orElseThrow(() -> new AuthenticationException(INVALID_REFRESH_TOKEN));
+        // Tokens issued before families existed carry neither claim; their holders log in once more
+        if (!token.isRefreshToken() || token.getFamilyId() == null) {
+            throw new AuthenticationException(INVALID_REFRESH_TOKEN);
+        }
+
+        AuthenticatedUser principal = principalCache.get(token.getSubject());
+        if (!principal.isEnabled()) {
+            throw new AuthenticationException("Tài khoản chưa được kích hoạt");
+        }
+
+        RefreshTokenFamily family = refreshTokenFamilyRepository.findByFamilyIdForUpdate(token.getFamilyId())
+                .orElseThrow(() -> new AuthenticationException(INVALID_REFRESH_TOKEN));
+
+        if (family.getRevoked() || !family.getCurrentTokenId().equals(token.getTokenId())) {
+            family.setRevoked(true);
+            refreshTokenFamilyRepository.save(family);
+            log.warn("Refresh token reuse detected for user {}, family {} revoked",
+                    family.getUserId(), family.getFamilyId());
+            throw new AuthenticationException(INVALID_REFRESH_TOKEN);
+        }
+
+        String tokenId = UUID.randomUUID().toString();
+        family.setCurrentTokenId(tokenId);
+        family.setExpiresAt(LocalDateTime.now().plus(Duration.ofMillis(jwtUtils.getRefreshExpirationMs())));
+        refreshTokenFamilyRepository.save(family);
+
+        return new RotatedRefreshToken(token.getSubject(),
+                jwtUtils.generateRefreshToken(token.getSubject(), tokenId, family.getFamilyId()));
+    }
+
+    /**
+     * Revoke the family of a refresh token (logout); invalid tokens are ignored
+     */
+    public void revoke(String refreshToken) {
+        if (refreshToken == null) {
+            return;
+        }
+
+        jwtUtils.verifyJwtToken(refreshToken)
+                .map(VerifiedJwt::getFamilyId)
+                .flatMap(refreshTokenFamilyRepository::findById)
+                .ifPresent(family -> {
+                    family.setRevoked(true);
+                    refreshTokenFamilyRepository.save(family);
+                });
+    }
+
+    /**
+     * Delete families whose last token has expired
+     */
+    @Scheduled(fixedDelayString = "${app.security.revocation.cleanup-interval-ms:300000}")
+    public void deleteExpiredFamilies() {
+        int deleted = refreshTokenFamilyRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh token families", deleted);
+        }
+    }
+
+    private String startFamily(Long userId, String subject) {
+        String familyId = UUID.randomUUID().toString();
+        String tokenId = UUID.randomUUID().toString();
+
+        RefreshTokenFamily family = new RefreshTokenFamily();
+        family.setFamilyId(familyId);
+        family.setUserId(userId);
+        family.setCurrentTokenId(tokenId);
+        family.setRevoked(false);
+        family.setExpiresAt(LocalDateTime.now().plus(Duration.ofMillis(jwtUtils.getRefreshExpirationMs())));
+        refreshTokenFamilyRepository.save(family);
+
+        return jwtUtils.generateRefreshToken(subject, tokenId, familyId);
+    }
+
+    public static class RotatedRefreshToken {
+        private final String subject;
+        private final String refreshToken;
+
+        public RotatedRefreshToken(String subject, String refreshToken) {
+            this.subject = subject;
+            this.refreshToken = refreshToken;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+    }
+}
@@ -35,16 +35,20 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.criteria.Predicate;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.LinkedHashMap;
+import java.util.Set;
 
 /**
  * ReviewService - Handles product review management business logic
@@ -59,31 +63,30 @@ public class ReviewService {
     private final ProductImageRepository productImageRepository;
     private final OrderItemRepository orderItemRepository;
     private final AuthService authService;
+    private final UserStatsService userStatsService;
+    private final ProductReviewCache productReviewCache;
 
     private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'");
 
     /**
      * Get product reviews with filtering, sorting, and pagination
      */
+    @Transactional(readOnly = true)
     public ApiResponse<ProductReviewsResponse> getProductReviews(
             Long productId,
             Integer page,
             Integer limit,
             Integer rating,
             String sortBy,
-            String sortOrder) {
+            String sortOrder,
+            String cursor) {
         
         log.info("Getting reviews for product: {} with filters", productId);
 
-        // Get current user ID if authenticated (outside transaction to avoid rollback issues)
-        Long currentUserId = null;
-        try {
-            currentUserId = authService.getCurrentUserId();
-        } catch (Exception e) {
-            log.debug("User not authenticated for review access");
-        }
+        // Current user ID if authenticated; the lookup never throws, so the transaction stays committable
+        Long currentUserId = authService.findCurrentUserId();
 
-        return getProductReviewsInTransaction(productId, page, limit, rating, sortBy, sortOrder, currentUserId);
+        return getProductReviewsInTransaction(productId, page, limit, rating, sortBy, sortOrder, cursor, currentUserId);
     }
 
     /**
@@ -161,9 +164,10 @@ public class ReviewService {
     }
 
     /**
-     * Get product reviews with filtering, sorting, and pagination (transactional)
+     * Get product reviews with filtering, sorting, and pagination (runs in the caller's transaction)
+     * The summary comes from one grouped query and also supplies the page totals; reviews are fetched
+     * with their users. A cursor switches to newest-first keyset paging on (created_at, id).
      */
-    @Transactional(readOnly = true)
     private ApiResponse<ProductReviewsResponse> getProductReviewsInTransaction(
             Long productId,
             Integer page,
@@ -171,6 +175,7 @@ public class ReviewService {
             Integer rating,
             String sortBy,
             String sortOrder,
+            String cursor,
             Long currentUserId) {
 
         Product product = productRepository.findById(productId)
@@ -178,30 +183,50 @@ public class ReviewService {
 
         int pageNum = (page != null && page > 0) ? page - 1 : 0;
         int pageSize = (limit != null && limit > 0) ? limit : 10;
- 
-        String sortField = mapSortField(sortBy);
-        Sort.Direction direction = "asc".equalsIgnoreCase(sortOrder) ? Sort.Direction.ASC : Sort.Direction.DESC;
-        Sort sort = Sort.by(direction, sortField);
-        Pageable pageable = PageRequest.of(pageNum, pageSize, sort);
-
-        Page<Review> reviewPage;
-        if (rating != null && rating >= 1 && rating <= 5) {
-            reviewPage = reviewRepository.findByProductIdAndRating(productId, rating, pageable);
-        } else {
-            reviewPage = reviewRepository.findByProductId(productId, pageable);
-        }
-
-
-        Long totalReviews = reviewRepository.countByProductId(productId);
-        Double averageRating = reviewRepository.calculateAverageRatingByProductId(productId);
-        List<Object[]> ratingCounts = reviewRepository.countReviewsByRatingForProduct(productId);
+        Integer ratingFilter = (rating != null && rating >= 1 && rating <= 5) ? rating : null;
 
+        // Rating summary: total, average and breakdown from one grouped query
         Map<String, Long> ratingBreakdown = new HashMap<>();
         for (int i = 1; i <= 5; i++) {
             ratingBreakdown.put(String.valueOf(i), 0L);
         }
-        ratingCounts.forEach(count -> ratingBreakdown.put(String.valueOf(count[0]), (Long) count[1]));
-
+        long totalReviews = 0;
+        long ratingSum = 0;
+        for (Object[] row : reviewRepository.countReviewsByRatingForProduct(productId)) {
+            int ratingValue = ((Number) row[0]).intValue();
+            long countValue = ((Number) row[1]).longValue();
+            ratingBreakdown.put(String.valueOf(ratingValue), countValue);
+            totalReviews += countValue;
+            ratingSum += ratingValue * countValue;
+        }
+        double averageRating = totalReviews > 0 ? (double) ratingSum / totalReviews : 0.0;
+        long matchingReviews = ratingFilter != null ? ratingBreakdown.get(String.valueOf(ratingFilter)) : totalReviews;
+        int totalPages = (int) ((matchingReviews + pageSize - 1) / pageSize);
+
+        List<Review> reviews;
+        boolean hasNext;
+        boolean hasPrev;
+        boolean newestFirst;
+        if (cursor != null && !cursor.isBlank()) {
+            ReviewCursor after = ReviewCursor.decode(cursor);
+            reviews = reviewRepository.findByProductIdWithUserBefore(productId, ratingFilter,
+                    after.createdAt(), after.id(), PageRequest.of(0, pageSize + 1));
+            hasNext = reviews.size() > pageSize;
+            if (hasNext) {
+                reviews = reviews.subList(0, pageSize);
+            }
+            hasPrev = true;
+            newestFirst = true;
+        } else {
+            String sortField = mapSortField(sortBy);
+            Sort.Direction direction = "asc".equalsIgnoreCase(sortOrder) ? Sort.Direction.ASC : Sort.Direction.DESC;
+            Sort sort = Sort.by(direction, sortField).and(Sort.by(direction, "id"));
+            reviews = reviewRepository.findPageByProductIdWithUser(productId, ratingFilter,
+                    PageRequest.of(pageNum, pageSize, sort));
+            hasNext = (long) (pageNum + 1) * pageSize < matchingReviews;
+            hasPrev = pageNum > 0;
+            newestFirst = "createdAt".equals(sortField) && direction == Sort.Direction.DESC;
+        }
 
         ProductReviewsResponse.ProductInfo productInfo = ProductReviewsResponse.ProductInfo.builder()
                 .id(product.getId())
@@ -211,23 +236,31 @@ public class ReviewService {
 
         ProductReviewsResponse.ReviewsSummary reviewsSummary = ProductReviewsResponse.ReviewsSummary.builder()
                 .totalReviews(totalReviews)
-                .averageRating(averageRating != null ? Math.round(averageRating * 10.0) / 10.0 : 0.0)
+                .averageRating(Math.round(averageRating * 10.0) / 10.0)
                 .ratingBreakdown(ratingBreakdown)
             .build();
 
+        Map<String, LocalDateTime> purchaseDates = resolvePurchaseDates(reviews);
         List<ProductReviewsResponse.ReviewItem> reviewItems = new ArrayList<>();
-        for (Review review : reviewPage.getContent()) {
-            ProductReviewsResponse.ReviewItem item = mapToReviewItem(review, currentUserId);
+        for (Review review : reviews) {
+            ProductReviewsResponse.ReviewItem item = mapToReviewItem(review, currentUserId, purchaseDates);
             reviewItems.add(item);
         }
 
+        String nextCursor = null;
+        if (hasNext && newestFirst) {
+            Review last = reviews.get(reviews.size() - 1);
+            nextCursor = new ReviewCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
         ProductReviewsResponse.PaginationInfo paginationInfo = ProductReviewsResponse.PaginationInfo.builder()
-                .currentPage(reviewPage.getNumber() + 1)
-                .totalPages(reviewPage.getTotalPages())
-                .totalItems(reviewPage.getTotalElements())
-                .itemsPerPage(reviewPage.getSize())
-                .hasNext(reviewPage.hasNext())
-                .hasPrev(reviewPage.hasPrevious())
+                .currentPage(cursor != null && !cursor.isBlank() ? null : pageNum + 1)
+                .totalPages(totalPages)
+                .totalItems(matchingReviews)
+                .itemsPerPage(pageSize)
+                .hasNext(hasNext)
+                .hasPrev(hasPrev)
+                .nextCursor(nextCursor)
             .build();
 
         ProductReviewsResponse response = ProductReviewsResponse.builder()
@@ -243,7 +276,8 @@ public class ReviewService {
     /**
      * Map Review entity to ReviewItem DTO
      */
-    private ProductReviewsResponse.ReviewItem mapToReviewItem(Review review, Long currentUserId) {
+    private ProductReviewsResponse.ReviewItem mapToReviewItem(Review review, Long currentUserId,
+                                                              Map<String, LocalDateTime> purchaseDates) {
         Long userId = review.getUser().getId();
         String fullName = review.getUser().getFullName();
         String avatar = review.getUser().getAvatar();
@@ -261,7 +295,7 @@ public class ReviewService {
                 .comment(review.getComment())
                 .createdAt(formatDateTime(review.getCreatedAt()))
                 .updatedAt(formatDateTime(review.getUpdatedAt()))
-                .isVerifiedPurchase(false)
+                .isVerifiedPurchase(purchaseDates.containsKey(purchaseKey(userId, review.getProduct().getId())))
                 .isOwnReview(isOwnReview)
                 .build();
     }
@@ -290,11 +324,11 @@ public class ReviewService {
                 .build();
     }
 
-    private AdminReviewsResponse.ReviewItem mapToAdminReviewItem(Review review) {
+    private AdminReviewsResponse.ReviewItem mapToAdminReviewItem(Review review, Map<String, LocalDateTime> purchaseDates) {
         User user = review.getUser();
         Product product = review.getProduct();
 
-        LocalDateTime purchaseDate = orderItemRepository.findFirstPurchaseDate(user.getId(), product.getId());
+        LocalDateTime purchaseDate = purchaseDates.get(purchaseKey(user.getId(), product.getId()));
 
         AdminReviewsResponse.UserInfo userInfo = AdminReviewsResponse.UserInfo.builder()
                 .id(user.getId())
@@ -322,6 +356,41 @@ public class ReviewService {
                 .build();
     }
 
+    /**
+     * Resolve first delivered purchase dates for the (user, product) pairs of a review page in one grouped query
+     * @return purchase date keyed by purchaseKey(userId, productId); unverified pairs are absent
+     */
+    private Map<String, LocalDateTime> resolvePurchaseDates(List<Review> reviews) {
+        if (reviews.isEmpty()) {
+            return Map.of();
+        }
+
+        Set<String> pageKeys = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (Review review : reviews) {
+            Long userId = review.getUser().getId();
+            Long productId = review.getProduct().getId();
+            pageKeys.add(purchaseKey(userId, productId));
+            userIds.add(userId);
+            productIds.add(productId);
+        }
+
+        // The IN lists match every user/product combination; keep only pairs on this page
+        Map<String, LocalDateTime> purchaseDates = new HashMap<>();
+        for (Object[] row : orderItemRepository.findFirstPurchaseDates(userIds, productIds)) {
+            String key = purchaseKey((Long) row[0], (Long) row[1]);
+            if (row[2] != null && pageKeys.contains(key)) {
+                purchaseDates.put(key, (LocalDateTime) row[2]);
+            }
+        }
+        return purchaseDates;
+    }
+
+    private static String purchaseKey(Long userId, Long productId) {
+        return userId + ":" + productId;
+    }
+
     /**
      * Map sort field from API to entity field
      */
@@ -389,6 +458,8 @@ public class ReviewService {
         review.setComment(request.getComment());
         
         Review savedReview = reviewRepository.save(review);
+        userStatsService.recordReviewCreated(userId, savedReview.getRating());
+        productReviewCache.invalidate(product.getId());
         
         // Build response
         CreateReviewResponse.ReviewData reviewData = CreateReviewResponse.ReviewData.builder()
@@ -547,8 +618,9 @@ public class ReviewService {
 
         Page<Review> reviewPage = reviewRepository.findAll(specification, pageable);
 
+        Map<String, LocalDateTime> purchaseDates = resolvePurchaseDates(reviewPage.getContent());
         List<AdminReviewsResponse.ReviewItem> reviewItems = reviewPage.getContent().stream()
-                .map(this::mapToAdminReviewItem)
+                .map(review -> mapToAdminReviewItem(review, purchaseDates))
                 .toList();
 
         AdminReviewsResponse.PaginationInfo paginationInfo = AdminReviewsResponse.PaginationInfo.builder()
@@ -695,9 +767,12 @@ public class ReviewService {
             );
         }
 
+        int previousRating = review.getRating();
         review.setRating(request.getRating());
         review.setComment(request.getComment());
         Review updatedReview = reviewRepository.save(review);
+        userStatsService.recordReviewUpdated(review.getUser().getId(), previousRating, updatedReview.getRating());
+        productReviewCache.invalidate(review.getProduct().getId());
 
         UpdateReviewResponse.ReviewData reviewData = UpdateReviewResponse.ReviewData.builder()
                 .id(updatedReview.getId())
@@ -731,6 +806,8 @@ public class ReviewService {
         }
 
         reviewRepository.delete(review);
+        userStatsService.recordReviewDeleted(review.getUser().getId(), review.getRating());
+        productReviewCache.invalidate(review.getProduct().getId());
 
         DeleteReviewResponse response = DeleteReviewResponse.builder()
                 .deletedReviewId(reviewId)
@@ -755,6 +832,8 @@ public class ReviewService {
                 .orElseThrow(() -> new ResourceNotFoundException("Đánh giá không tồn tại"));
 
         reviewRepository.delete(review);
+        userStatsService.recordReviewDeleted(review.getUser().getId(), review.getRating());
+        productReviewCache.invalidate(review.getProduct().getId());
 
         LocalDateTime deletedAt = LocalDateTime.now();
 
@@ -1016,6 +1095,43 @@ public class ReviewService {
         }
     }
 
+    /**
+     * Keyset position in a newest-first review list, exchanged with clients as an opaque string
+     */
+    private static class ReviewCursor {
+        private final LocalDateTime createdAt;
+        private final Long id;
+
+        private ReviewCursor(LocalDateTime createdAt, Long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        public LocalDateTime createdAt() {
+            return createdAt;
+        }
+
+        public Long id() {
+            return id;
+        }
+
+        private String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static ReviewCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new ReviewCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new BadRequestException("Cursor không hợp lệ");
+            }
+        }
+    }
+
     private static class DailySnapshot {
         private final long count;
         private final double average;
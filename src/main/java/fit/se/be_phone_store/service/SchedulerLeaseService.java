@@ -0,0 +1,59 @@
+package fit.se.be_phone_store.service;
+
+import fit.se.be_phone_store.repository.SchedulerLeaseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * SchedulerLeaseService - Database leases for jobs that must run on one node at a time
+ * Each call commits on its own so the lease row is never locked for the duration of the job.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SchedulerLeaseService {
+
+    private static final String OWNER_ID = resolveHostName() + ":" + UUID.randomUUID();
+
+    private final SchedulerLeaseRepository schedulerLeaseRepository;
+
+    /**
+     * Acquire or extend a lease
+     * @return true if this node holds the lease for the given duration
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean tryAcquire(String name, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(duration);
+
+        if (schedulerLeaseRepository.insertIfAbsent(name, OWNER_ID, expiresAt) > 0) {
+            return true;
+        }
+        return schedulerLeaseRepository.takeOver(name, OWNER_ID, expiresAt, now) > 0;
+    }
+
+    /**
+     * Release a lease held by this node so another node may run the job immediately
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(String name) {
+        schedulerLeaseRepository.release(name, OWNER_ID, LocalDateTime.now());
+    }
+
+    private static String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown-host";
+        }
+    }
+}
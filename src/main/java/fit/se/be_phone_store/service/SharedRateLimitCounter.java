@@ -0,0 +1,51 @@
+package fit.se.be_phone_store.service;
+
+import fit.se.be_phone_store.config.RateLimitProperties;
+import fit.se.be_phone_store.repository.RateLimitCounterRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Shared fixed-window counters backing RateLimitService when app.rate-limit.shared=true
+ * Each increment runs in its own short transaction so callers never hold the counter row lock.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SharedRateLimitCounter {
+
+    private final RateLimitCounterRepository rateLimitCounterRepository;
+    private final RateLimitProperties rateLimitProperties;
+
+    /**
+     * Increment the counter of a window
+     * @return requests counted in the window so far
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int increment(String windowKey, LocalDateTime windowEnd) {
+        rateLimitCounterRepository.increment(windowKey, windowEnd);
+        Integer count = rateLimitCounterRepository.findCountById(windowKey);
+        return count != null ? count : 1;
+    }
+
+    /**
+     * Delete counters of finished windows
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.cleanup-interval-ms:60000}")
+    @Transactional
+    public void deleteExpired() {
+        if (!rateLimitProperties.isShared()) {
+            return;
+        }
+        int deleted = rateLimitCounterRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.debug("Deleted {} expired rate limit counters", deleted);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package fit.se.be_phone_store.service;
+
+import fit.se.be_phone_store.entity.PrincipalInvalidation;
+import fit.se.be_phone_store.entity.RevokedToken;
+import fit.se.be_phone_store.repository.PrincipalInvalidationRepository;
+import fit.se.be_phone_store.repository.RevokedTokenRepository;
+import fit.se.be_phone_store.util.BloomFilter;
+import fit.se.be_phone_store.util.PrincipalCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * TokenRevocationService - Tracks revoked JWT IDs (jti)
+ *
+ * The hot-path check is a Bloom filter probe followed, only on a possible hit, by a
+ * ConcurrentHashMap lookup; neither allocates or touches the database. Revocations are
+ * written to revoked_tokens and pulled by every node on a fixed delay, and entries are
+ * evicted in expiry order once the token could no longer be accepted anyway.
+ *
+ * Nodes pull by the auto-increment ID of revoked_tokens rather than by timestamp, so clock
+ * differences between nodes cannot hide a revocation. The same sync replays the principal
+ * cache evictions other nodes recorded in principal_invalidations, so a role change, token
+ * version bump or disabled account reaches every node's PrincipalCache.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    private static final int SYNC_PAGE_SIZE = 1000;
+
+    // Every node syncs far more often than this
+    private static final Duration INVALIDATION_RETENTION = Duration.ofHours(1);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final PrincipalInvalidationRepository principalInvalidationRepository;
+    private final PrincipalCache principalCache;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+
+    // jti -> token expiration (epoch millis)
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    // Guarded by this; ordered by expiration for eviction
+    private final PriorityQueue<RevokedEntry> expiryQueue = new PriorityQueue<>();
+
+    // Replaced wholesale when evictions leave it stale; writes happen under this
+    private volatile BloomFilter bloomFilter;
+
+    // Guarded by syncLock; only the sync reads and moves them
+    private final Object syncLock = new Object();
+    private final IdCursor revokedCursor = new IdCursor();
+    private final IdCursor invalidationCursor = new IdCursor();
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  PrincipalInvalidationRepository principalInvalidationRepository,
+                                  PrincipalCache principalCache,
+                                  @Value("${app.security.revocation.expected-revocations:100000}") int expectedRevocations,
+                                  @Value("${app.security.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.principalInvalidationRepository = principalInvalidationRepository;
+        this.principalCache = principalCache;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloomFilter = new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    /**
+     * Check whether a token ID has been revoked
+     */
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && bloomFilter.mightContain(tokenId) && revoked.containsKey(tokenId);
+    }
+
+    /**
+     * Revoke a token until it expires, locally and for other nodes
+     */
+    @Transactional
+    public void revoke(String tokenId, long expiresAtMillis) {
+        if (tokenId == null || expiresAtMillis <= System.currentTimeMillis() || isRevoked(tokenId)) {
+            return;
+        }
+
+        if (!revokedTokenRepository.existsByTokenId(tokenId)) {
+            revokedTokenRepository.save(new RevokedToken(null, tokenId, toLocalDateTime(expiresAtMillis), LocalDateTime.now()));
+        }
+        addLocal(tokenId, expiresAtMillis);
+        log.debug("Revoked token: {}", tokenId);
+    }
+
+    /**
+     * Load the full revocation list once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        syncFromDatabase();
+    }
+
+    /**
+     * Pull revocations and principal invalidations recorded by other nodes
+     */
+    @Scheduled(fixedDelayString = "${app.security.revocation.sync-interval-ms:30000}")
+    public void syncFromDatabase() {
+        synchronized (syncLock) {
+            try {
+                int added = pull(revokedCursor, revokedTokenRepository::findAfterId,
+                        revokedTokenRepository::findAllById, this::addSynced);
+                int invalidated = pull(invalidationCursor, principalInvalidationRepository::findAfterId,
+                        principalInvalidationRepository::findAllById, this::invalidateSynced);
+                if (added > 0 || invalidated > 0) {
+                    log.debug("Synced {} revoked tokens and {} principal invalidations", added, invalidated);
+                }
+            } catch (Exception e) {
+                log.error("Failed to sync revoked tokens: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Evict expired revocations in expiry order and purge them from the database
+     */
+    @Scheduled(fixedDelayString = "${app.security.revocation.cleanup-interval-ms:300000}")
+    @Transactional
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        int evicted = 0;
+
+        synchronized (this) {
+            RevokedEntry head;
+            while ((head = expiryQueue.peek()) != null && head.expiresAtMillis <= now) {
+                expiryQueue.poll();
+                revoked.remove(head.tokenId);
+                evicted++;
+            }
+
+            if (evicted > 0) {
+                // Bloom filters cannot delete; rebuild from what is left
+                BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revoked.size()), falsePositiveRate);
+                revoked.keySet().forEach(rebuilt::put);
+                bloomFilter = rebuilt;
+            }
+        }
+
+        try {
+            int deleted = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+            if (evicted > 0 || deleted > 0) {
+                log.info("Evicted {} expired revocations ({} rows deleted)", evicted, deleted);
+            }
+            principalInvalidationRepository.deleteCreatedBefore(LocalDateTime.now().minus(INVALIDATION_RETENTION));
+        } catch (Exception e) {
+            log.error("Failed to delete expired revoked tokens: {}", e.getMessage());
+        }
+    }
+
+    // Applies rows after the cursor page by page, then the IDs it skipped earlier
+    private <T> int pull(IdCursor cursor, BiFunction<Long, Pageable, List<T>> findAfterId,
+                         Function<Set<Long>, List<T>> findAllById, Function<List<T>, Integer> apply) {
+        int applied = 0;
+        List<T> page;
+        do {
+            page = findAfterId.apply(cursor.lastId, PageRequest.of(0, SYNC_PAGE_SIZE));
+            applied += apply.apply(page);
+        } while (page.size() == SYNC_PAGE_SIZE);
+
+        // Rows that took a lower ID but committed after a higher one
+        Set<Long> gaps = cursor.gaps();
+        if (!gaps.isEmpty()) {
+            applied += apply.apply(findAllById.apply(gaps));
+            cursor.expireGaps();
+        }
+        return applied;
+    }
+
+    private int invalidateSynced(List<PrincipalInvalidation> invalidations) {
+        for (PrincipalInvalidation invalidation : invalidations) {
+            invalidationCursor.seen(invalidation.getId());
+            principalCache.evictLocal(invalidation.getUsername(), invalidation.getEmail());
+        }
+        return invalidations.size();
+    }
+
+    private int addSynced(List<RevokedToken> tokens) {
+        long now = System.currentTimeMillis();
+        int added = 0;
+        for (RevokedToken token : tokens) {
+            revokedCursor.seen(token.getId());
+            long expiresAtMillis = toEpochMillis(token.getExpiresAt());
+            if (expiresAtMillis > now && !revoked.containsKey(token.getTokenId())) {
+                addLocal(token.getTokenId(), expiresAtMillis);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private synchronized void addLocal(String tokenId, long expiresAtMillis) {
+        if (revoked.putIfAbsent(tokenId, expiresAtMillis) == null) {
+            bloomFilter.put(tokenId);
+            expiryQueue.add(new RevokedEntry(tokenId, expiresAtMillis));
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Position in an auto-increment ID stream. IDs are taken at insert but become visible at
+     * commit, so a row can appear after one with a higher ID. IDs skipped just below a new row
+     * are read again on the next sync, then dropped as rolled back.
+     */
+    private static final class IdCursor {
+
+        // Concurrent inserts are never far apart, so older skipped IDs are not tracked
+        private static final int MAX_TRACKED_GAP = 1000;
+
+        private long lastId;
+
+        // skipped ID -> already read again once
+        private final Map<Long, Boolean> gaps = new HashMap<>();
+
+        private void seen(long id) {
+            if (id <= lastId) {
+                gaps.remove(id);
+                return;
+            }
+            for (long skipped = Math.max(lastId + 1, id - MAX_TRACKED_GAP); skipped < id; skipped++) {
+                gaps.put(skipped, false);
+            }
+            lastId = id;
+        }
+
+        private Set<Long> gaps() {
+            return new HashSet<>(gaps.keySet());
+        }
+
+        private void expireGaps() {
+            gaps.values().removeIf(readAgain -> readAgain);
+            gaps.replaceAll((id, readAgain) -> true);
+        }
+    }
+
+    private static final class RevokedEntry implements Comparable<RevokedEntry> {
+        private final String tokenId;
+        private final long expiresAtMillis;
+
+        private RevokedEntry(String tokenId, long expiresAtMillis) {
+            this.tokenId = tokenId;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        @Override
+        public int compareTo(RevokedEntry other) {
+            return Long.compare(expiresAtMillis, other.expiresAtMillis);
+        }
+    }
+}
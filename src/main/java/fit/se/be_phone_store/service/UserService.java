@@ -3,8 +3,7 @@ package fit.se.be_phone_store.service;
 import fit.se.be_phone_store.entity.User;
 import fit.se.be_phone_store.entity.Order;
 import fit.se.be_phone_store.entity.Review;
-import fit.se.be_phone_store.entity.OrderItem;
-import fit.se.be_phone_store.entity.Product;
+import fit.se.be_phone_store.entity.UserStats;
 import fit.se.be_phone_store.repository.UserRepository;
 import fit.se.be_phone_store.repository.OrderRepository;
 import fit.se.be_phone_store.repository.ReviewRepository;
@@ -27,10 +26,12 @@ import fit.se.be_phone_store.exception.ResourceNotFoundException;
 import fit.se.be_phone_store.exception.UnauthorizedException;
 import fit.se.be_phone_store.exception.BadRequestException;
 import fit.se.be_phone_store.exception.FileStorageException;
+import fit.se.be_phone_store.util.PrincipalCache;
 import org.springframework.web.multipart.MultipartFile;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
@@ -43,7 +44,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
-import java.util.Collections;
 import java.util.ArrayList;
 
 /**
@@ -61,6 +61,8 @@ public class UserService {
     private final ReviewRepository reviewRepository;
     private final OrderItemRepository orderItemRepository;
     private final CloudinaryService cloudinaryService;
+    private final UserStatsService userStatsService;
+    private final PrincipalCache principalCache;
 
     /**
      * Get user profile by ID
@@ -123,6 +125,7 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        principalCache.evict(user);
         UserProfileResponse profile = mapToUserProfileResponse(updatedUser);
 
         log.info("User profile updated successfully: {}", userId);
@@ -172,6 +175,13 @@ public class UserService {
             throw new UnauthorizedException("Admin access required");
         }
 
+        if (page < 1) {
+            throw new BadRequestException("Invalid page: " + page);
+        }
+        if (limit < 1) {
+            throw new BadRequestException("Invalid limit: " + limit);
+        }
+
         User.Role roleEnum = null;
         if (role != null && !role.isEmpty()) {
             try {
@@ -184,59 +194,87 @@ public class UserService {
         LocalDateTime fromDateTime = fromDate != null ? fromDate.atStartOfDay() : null;
         LocalDateTime toDateTime = toDate != null ? toDate.atTime(23, 59, 59) : null;
 
-        List<User> filteredUsers = userRepository.findUsersWithFilters(
-                roleEnum, enabled, fromDateTime, toDateTime);
-
         Sort.Direction direction = "asc".equalsIgnoreCase(sortOrder) 
                 ? Sort.Direction.ASC 
                 : Sort.Direction.DESC;
-        
+
+        String sortProperty;
         if ("full_name".equalsIgnoreCase(sortBy)) {
-            filteredUsers.sort((u1, u2) -> {
-                String name1 = u1.getFullName() != null ? u1.getFullName() : "";
-                String name2 = u2.getFullName() != null ? u2.getFullName() : "";
-                int compare = name1.compareToIgnoreCase(name2);
-                return direction == Sort.Direction.ASC ? compare : -compare;
-            });
+            sortProperty = "fullName";
         } else if ("email".equalsIgnoreCase(sortBy)) {
-            filteredUsers.sort((u1, u2) -> {
-                String email1 = u1.getEmail() != null ? u1.getEmail() : "";
-                String email2 = u2.getEmail() != null ? u2.getEmail() : "";
-                int compare = email1.compareToIgnoreCase(email2);
-                return direction == Sort.Direction.ASC ? compare : -compare;
-            });
+            sortProperty = "email";
         } else {
-            filteredUsers.sort((u1, u2) -> {
-                LocalDateTime date1 = u1.getCreatedAt() != null ? u1.getCreatedAt() : LocalDateTime.MIN;
-                LocalDateTime date2 = u2.getCreatedAt() != null ? u2.getCreatedAt() : LocalDateTime.MIN;
-                int compare = date1.compareTo(date2);
-                return direction == Sort.Direction.ASC ? compare : -compare;
-            });
+            sortProperty = "createdAt";
         }
 
-        int start = (page - 1) * limit;
-        int end = Math.min(start + limit, filteredUsers.size());
-        List<User> pagedUsers = start < filteredUsers.size() 
-                ? filteredUsers.subList(start, end) 
-                : new ArrayList<>();
+        // Sort and page in the database; id keeps the order stable across pages
+        Pageable pageable = PageRequest.of(page - 1, limit,
+                Sort.by(direction, sortProperty).and(Sort.by(direction, "id")));
+
+        Page<User> usersPage = userRepository.findUsersWithFilters(
+                roleEnum, enabled, fromDateTime, toDateTime, pageable);
+        List<User> pagedUsers = usersPage.getContent();
+
+        // Lifetime counters for this page; users without a counter row yet
+        // fall back to one grouped aggregate over their orders
+        Map<Long, UserStats> storedStats = new HashMap<>();
+        Map<Long, Object[]> orderTotals = new HashMap<>();
+        if (!pagedUsers.isEmpty()) {
+            List<Long> userIds = pagedUsers.stream()
+                    .map(User::getId)
+                    .collect(Collectors.toList());
+            storedStats = userStatsService.getStoredStats(userIds);
+
+            List<Long> missingIds = new ArrayList<>();
+            for (Long userId : userIds) {
+                if (!storedStats.containsKey(userId)) {
+                    missingIds.add(userId);
+                }
+            }
+            if (!missingIds.isEmpty()) {
+                for (Object[] row : userRepository.getOrderTotalsByUserIds(missingIds)) {
+                    orderTotals.put(((Number) row[0]).longValue(), row);
+                }
+            }
+        }
 
+        Map<Long, UserStats> pageStats = storedStats;
         List<AdminUserListResponse.UserInfo> userInfos = pagedUsers.stream()
-                .map(this::mapToAdminUserInfo)
+                .map(user -> mapToAdminUserInfo(user, pageStats.get(user.getId()), orderTotals.get(user.getId())))
                 .collect(Collectors.toList());
 
+        long totalItems = usersPage.getTotalElements();
+        long start = (long) (page - 1) * limit;
+
         AdminUserListResponse.PaginationInfo pagination = AdminUserListResponse.PaginationInfo.builder()
                 .currentPage(page)
-                .totalPages((int) Math.ceil((double) filteredUsers.size() / limit))
-                .totalItems((long) filteredUsers.size())
+                .totalPages((int) Math.ceil((double) totalItems / limit))
+                .totalItems(totalItems)
                 .itemsPerPage(limit)
-                .hasNext(end < filteredUsers.size())
+                .hasNext(start + pagedUsers.size() < totalItems)
                 .hasPrev(start > 0)
                 .build();
 
-        long totalUsers = userRepository.count();
-        long activeUsers = userRepository.countByEnabled(true);
-        long disabledUsers = userRepository.countByEnabled(false);
-        long totalAdmins = userRepository.countByRole(User.Role.ADMIN);
+        // Summary counters from one grouped query over (role, enabled)
+        long totalUsers = 0;
+        long activeUsers = 0;
+        long disabledUsers = 0;
+        long totalAdmins = 0;
+        for (Object[] row : userRepository.countUsersByRoleAndEnabled()) {
+            User.Role rowRole = (User.Role) row[0];
+            Boolean rowEnabled = (Boolean) row[1];
+            long count = ((Number) row[2]).longValue();
+
+            totalUsers += count;
+            if (Boolean.TRUE.equals(rowEnabled)) {
+                activeUsers += count;
+            } else if (Boolean.FALSE.equals(rowEnabled)) {
+                disabledUsers += count;
+            }
+            if (rowRole == User.Role.ADMIN) {
+                totalAdmins += count;
+            }
+        }
 
         AdminUserListResponse.SummaryInfo summary = AdminUserListResponse.SummaryInfo.builder()
                 .totalUsers((int) totalUsers)
@@ -270,9 +308,11 @@ public class UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        List<Order> userOrders = orderRepository.findByUserId(userId);
- 
-        List<Review> userReviews = reviewRepository.findByUserIdWithProduct(userId);
+        UserStats stats = userStatsService.getStats(userId);
+
+        List<Order> latestOrders = orderRepository.findByUserIdOrderByCreatedAtDesc(userId, PageRequest.of(0, 5));
+
+        List<Review> latestReviews = reviewRepository.findRecentByUserIdWithProduct(userId, PageRequest.of(0, 5));
 
         AdminUserDetailResponse.UserInfo userInfo = AdminUserDetailResponse.UserInfo.builder()
                 .id(user.getId())
@@ -288,42 +328,24 @@ public class UserService {
                 .lastLogin(user.getLastLoginAt())
                 .build();
 
-        int totalOrders = userOrders.size();
-        int completedOrders = (int) userOrders.stream()
-                .filter(o -> o.getStatus() == Order.OrderStatus.DELIVERED)
-                .count();
-        int cancelledOrders = (int) userOrders.stream()
-                .filter(o -> o.getStatus() == Order.OrderStatus.CANCELLED)
-                .count();
-
-        BigDecimal totalSpent = userOrders.stream()
-                .filter(o -> o.getStatus() == Order.OrderStatus.DELIVERED)
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        int completedOrders = stats.getDeliveredOrders();
+        BigDecimal totalSpent = stats.getTotalSpent();
 
         BigDecimal averageOrderValue = completedOrders > 0
                 ? totalSpent.divide(BigDecimal.valueOf(completedOrders), 2, java.math.RoundingMode.HALF_UP)
                 : BigDecimal.ZERO;
 
-        int totalReviews = userReviews.size();
-        double averageRating = userReviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
-
         AdminUserDetailResponse.StatisticsInfo statistics = AdminUserDetailResponse.StatisticsInfo.builder()
-                .totalOrders(totalOrders)
+                .totalOrders(stats.getTotalOrders())
                 .completedOrders(completedOrders)
-                .cancelledOrders(cancelledOrders)
+                .cancelledOrders(stats.getCancelledOrders())
                 .totalSpent(totalSpent)
                 .averageOrderValue(averageOrderValue)
-                .totalReviews(totalReviews)
-                .averageRating(Math.round(averageRating * 10.0) / 10.0) 
+                .totalReviews(stats.getTotalReviews())
+                .averageRating(Math.round(stats.getAverageRating() * 10.0) / 10.0) 
                 .build();
 
-        List<AdminUserDetailResponse.RecentOrder> recentOrders = userOrders.stream()
-                .sorted((o1, o2) -> o2.getCreatedAt().compareTo(o1.getCreatedAt()))
-                .limit(5)
+        List<AdminUserDetailResponse.RecentOrder> recentOrders = latestOrders.stream()
                 .map(order -> AdminUserDetailResponse.RecentOrder.builder()
                         .id(order.getId())
                         .orderNumber(order.getOrderNumber())
@@ -333,9 +355,7 @@ public class UserService {
                         .build())
                 .collect(Collectors.toList());
 
-        List<AdminUserDetailResponse.RecentReview> recentReviews = userReviews.stream()
-                .sorted((r1, r2) -> r2.getCreatedAt().compareTo(r1.getCreatedAt()))
-                .limit(5)
+        List<AdminUserDetailResponse.RecentReview> recentReviews = latestReviews.stream()
                 .map(review -> AdminUserDetailResponse.RecentReview.builder()
                         .id(review.getId())
                         .productName(review.getProduct() != null ? review.getProduct().getName() : "N/A")
@@ -357,16 +377,24 @@ public class UserService {
 
     /**
      * Map User entity to AdminUserInfo DTO with statistics
+     * @param stats Stored lifetime counters, may be null
+     * @param orderTotals Row from getOrderTotalsByUserIds: [userId, orderCount, totalSpent], used when stats is null
      */
-    private AdminUserListResponse.UserInfo mapToAdminUserInfo(User user) {
-        List<Order> userOrders = orderRepository.findByUserId(user.getId());
-
-        int totalOrders = userOrders.size();
-
-        BigDecimal totalSpent = userOrders.stream()
-                .filter(o -> o.getStatus() == Order.OrderStatus.DELIVERED)
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private AdminUserListResponse.UserInfo mapToAdminUserInfo(User user, UserStats stats, Object[] orderTotals) {
+        int totalOrders = 0;
+        BigDecimal totalSpent = BigDecimal.ZERO;
+
+        if (stats != null) {
+            totalOrders = stats.getTotalOrders();
+            totalSpent = stats.getTotalSpent();
+        } else if (orderTotals != null) {
+            totalOrders = ((Number) orderTotals[1]).intValue();
+            if (orderTotals[2] instanceof BigDecimal) {
+                totalSpent = (BigDecimal) orderTotals[2];
+            } else if (orderTotals[2] != null) {
+                totalSpent = new BigDecimal(orderTotals[2].toString());
+            }
+        }
 
         return AdminUserListResponse.UserInfo.builder()
                 .id(user.getId())
@@ -470,7 +498,11 @@ public class UserService {
             .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
         user.setEnabled(enabled);
+        if (!enabled) {
+            user.incrementTokenVersion();
+        }
         userRepository.save(user);
+        principalCache.evict(user);
 
         String message = enabled ? "User enabled successfully" : "User disabled successfully";
         log.info("User {} enabled status changed to: {}", userId, enabled);
@@ -509,6 +541,9 @@ public class UserService {
 
         // Update enabled status
         user.setEnabled(newStatus);
+        if (!newStatus) {
+            user.incrementTokenVersion();
+        }
 
         if (request.getReason() != null && !request.getReason().trim().isEmpty()) {
             String notePrefix = newStatus ? "Enabled: " : "Disabled: ";
@@ -523,6 +558,7 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        principalCache.evict(user);
 
         // Get current admin user info
         User currentAdmin = authService.getCurrentUser();
@@ -792,8 +828,12 @@ public class UserService {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        user.setRole(role);
+        if (user.getRole() != role) {
+            user.setRole(role);
+            user.incrementTokenVersion();
+        }
         userRepository.save(user);
+        principalCache.evict(user);
 
         log.info("User {} role updated to: {}", userId, role);
         return ApiResponse.success("User role updated successfully");
@@ -841,7 +881,9 @@ public class UserService {
 
         // Soft delete - disable the user instead of hard delete
         user.setEnabled(false);
+        user.incrementTokenVersion();
         userRepository.save(user);
+        principalCache.evict(user);
 
         log.info("User {} deleted (disabled) successfully", userId);
         return ApiResponse.success("User account deleted successfully");
@@ -908,60 +950,37 @@ public class UserService {
         User currentUser = authService.getCurrentUser();
         Long userId = currentUser.getId();
 
-        // Get all orders for user
-        List<Order> orders = orderRepository.findByUserId(userId);
-        List<Review> reviews = reviewRepository.findByUserId(userId);
-
-        // Calculate account summary
-        int totalOrders = orders.size();
-        int completedOrders = (int) orders.stream()
-                .filter(o -> o.getStatus() == Order.OrderStatus.DELIVERED)
-                .count();
-        int cancelledOrders = (int) orders.stream()
-                .filter(o -> o.getStatus() == Order.OrderStatus.CANCELLED)
-                .count();
-        
-        BigDecimal totalSpent = orders.stream()
-                .filter(o -> o.getStatus() == Order.OrderStatus.DELIVERED)
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Lifetime counters from user_stats
+        UserStats stats = userStatsService.getStats(userId);
+        int completedOrders = stats.getDeliveredOrders();
 
         UserStatisticsResponse.AccountSummary accountSummary = 
             new UserStatisticsResponse.AccountSummary(
                 currentUser.getCreatedAt(),
-                totalOrders,
+                stats.getTotalOrders(),
                 completedOrders,
-                cancelledOrders,
-                totalSpent,
-                reviews.size()
+                stats.getCancelledOrders(),
+                stats.getTotalSpent(),
+                stats.getTotalReviews()
             );
 
-        // Calculate order statistics
-        int pendingOrders = (int) orders.stream()
-                .filter(o -> o.getStatus() == Order.OrderStatus.PENDING)
-                .count();
-        int processingOrders = (int) orders.stream()
-                .filter(o -> o.getStatus() == Order.OrderStatus.PROCESSING)
-                .count();
-        int shippedOrders = (int) orders.stream()
-                .filter(o -> o.getStatus() == Order.OrderStatus.SHIPPED)
-                .count();
-
         UserStatisticsResponse.OrderStatistics orderStatistics = 
             new UserStatisticsResponse.OrderStatistics(
-                pendingOrders,
-                processingOrders,
-                shippedOrders,
+                stats.getPendingOrders(),
+                stats.getProcessingOrders(),
+                stats.getShippedOrders(),
                 completedOrders
             );
 
         // Get recent activity
-        Order lastOrder = orders.stream()
-                .max((o1, o2) -> o1.getCreatedAt().compareTo(o2.getCreatedAt()))
+        Order lastOrder = orderRepository.findByUserIdOrderByCreatedAtDesc(userId, PageRequest.of(0, 1))
+                .stream()
+                .findFirst()
                 .orElse(null);
 
-        Review lastReview = reviews.stream()
-                .max((r1, r2) -> r1.getCreatedAt().compareTo(r2.getCreatedAt()))
+        Review lastReview = reviewRepository.findRecentByUserIdWithProduct(userId, PageRequest.of(0, 1))
+                .stream()
+                .findFirst()
                 .orElse(null);
 
         UserStatisticsResponse.LastOrder lastOrderInfo = null;
@@ -986,26 +1005,11 @@ public class UserService {
         UserStatisticsResponse.RecentActivity recentActivity = 
             new UserStatisticsResponse.RecentActivity(lastOrderInfo, lastReviewInfo);
 
-        // Find favorite category
-        Map<String, Integer> categoryCount = new HashMap<>();
-        for (Order order : orders) {
-            List<OrderItem> items = orderItemRepository.findByOrder(order);
-            for (OrderItem item : items) {
-                Product product = item.getProduct();
-                if (product.getCategory() != null) {
-                    String categoryName = product.getCategory().getName();
-                    categoryCount.put(categoryName, categoryCount.getOrDefault(categoryName, 0) + 1);
-                }
-            }
-        }
-
-        UserStatisticsResponse.FavoriteCategory favoriteCategory = null;
-        if (!categoryCount.isEmpty()) {
-            String favoriteCategoryName = Collections.max(categoryCount.entrySet(), 
-                    Map.Entry.comparingByValue()).getKey();
-            Integer orderCount = categoryCount.get(favoriteCategoryName);
-            favoriteCategory = new UserStatisticsResponse.FavoriteCategory(favoriteCategoryName, orderCount);
-        }
+        // Find favorite category from the per-category purchase counters
+        UserStatisticsResponse.FavoriteCategory favoriteCategory = userStatsService.getFavoriteCategory(userId)
+                .map(row -> new UserStatisticsResponse.FavoriteCategory(
+                        (String) row[0], ((Number) row[1]).intValue()))
+                .orElse(null);
 
         UserStatisticsResponse statistics = UserStatisticsResponse.builder()
                 .user_id(userId)
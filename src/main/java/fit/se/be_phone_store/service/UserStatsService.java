@@ -0,0 +1,273 @@
+package fit.se.be_phone_store.service;
+
+import fit.se.be_phone_store.entity.Order;
+import fit.se.be_phone_store.entity.OrderItem;
+import fit.se.be_phone_store.entity.Product;
+import fit.se.be_phone_store.entity.UserCategoryStats;
+import fit.se.be_phone_store.entity.UserStats;
+import fit.se.be_phone_store.repository.OrderItemRepository;
+import fit.se.be_phone_store.repository.OrderRepository;
+import fit.se.be_phone_store.repository.ReviewRepository;
+import fit.se.be_phone_store.repository.UserCategoryStatsRepository;
+import fit.se.be_phone_store.repository.UserStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * UserStatsService - Maintains per-user lifetime counters (user_stats, user_category_stats)
+ *
+ * Writers call the record* methods inside their own transaction. A user without a
+ * counter row is rebuilt from orders and reviews on the first write; readers fall
+ * back to grouped queries until then. Concurrent first writes race on an INSERT IGNORE,
+ * and the losers apply their delta to the winner's row under the row lock.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class UserStatsService {
+
+    private final UserStatsRepository userStatsRepository;
+    private final UserCategoryStatsRepository userCategoryStatsRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ReviewRepository reviewRepository;
+
+    /**
+     * Get counters for a user, computing them on the fly if no row exists yet
+     */
+    @Transactional(readOnly = true)
+    public UserStats getStats(Long userId) {
+        return userStatsRepository.findById(userId)
+                .orElseGet(() -> computeStats(userId));
+    }
+
+    /**
+     * Get stored counter rows for several users, keyed by user ID (missing users are absent)
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, UserStats> getStoredStats(Collection<Long> userIds) {
+        return userStatsRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(UserStats::getUserId, Function.identity()));
+    }
+
+    /**
+     * Get the most purchased category of a user
+     * @return [categoryName, purchaseCount] or empty
+     */
+    @Transactional(readOnly = true)
+    public Optional<Object[]> getFavoriteCategory(Long userId) {
+        List<Object[]> rows = userStatsRepository.existsById(userId)
+                ? userCategoryStatsRepository.findTopCategoriesByUserId(userId, PageRequest.of(0, 1))
+                : orderItemRepository.findTopCategoriesForUser(userId, PageRequest.of(0, 1));
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * Record a newly created order and its items
+     */
+    public void recordOrderCreated(Order order, List<OrderItem> orderItems) {
+        Long userId = order.getUser().getId();
+        Optional<UserStats> existing = lockForDelta(userId);
+        if (existing.isEmpty()) {
+            return;
+        }
+
+        UserStats stats = existing.get();
+        stats.setTotalOrders(stats.getTotalOrders() + 1);
+        stats.adjustStatusCount(order.getStatus(), 1);
+        if (order.getStatus() == Order.OrderStatus.DELIVERED) {
+            stats.setTotalSpent(stats.getTotalSpent().add(order.getTotalAmount()));
+        }
+        userStatsRepository.save(stats);
+
+        Map<Long, Integer> itemsByCategory = new HashMap<>();
+        for (OrderItem item : orderItems) {
+            Product product = item.getProduct();
+            if (product != null && product.getCategory() != null) {
+                itemsByCategory.merge(product.getCategory().getId(), 1, Integer::sum);
+            }
+        }
+        if (!itemsByCategory.isEmpty()) {
+            incrementCategories(userId, itemsByCategory);
+        }
+    }
+
+    /**
+     * Record an order status transition
+     */
+    public void recordOrderStatusChange(Order order, Order.OrderStatus oldStatus, Order.OrderStatus newStatus) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+
+        Long userId = order.getUser().getId();
+        Optional<UserStats> existing = lockForDelta(userId);
+        if (existing.isEmpty()) {
+            return;
+        }
+
+        UserStats stats = existing.get();
+        stats.adjustStatusCount(oldStatus, -1);
+        stats.adjustStatusCount(newStatus, 1);
+        if (oldStatus == Order.OrderStatus.DELIVERED) {
+            stats.setTotalSpent(stats.getTotalSpent().subtract(order.getTotalAmount()));
+        }
+        if (newStatus == Order.OrderStatus.DELIVERED) {
+            stats.setTotalSpent(stats.getTotalSpent().add(order.getTotalAmount()));
+        }
+        userStatsRepository.save(stats);
+    }
+
+    /**
+     * Record a new review
+     */
+    public void recordReviewCreated(Long userId, int rating) {
+        applyReviewDelta(userId, 1, rating);
+    }
+
+    /**
+     * Record a rating change on an existing review
+     */
+    public void recordReviewUpdated(Long userId, int oldRating, int newRating) {
+        if (oldRating != newRating) {
+            applyReviewDelta(userId, 0, newRating - oldRating);
+        }
+    }
+
+    /**
+     * Record a deleted review
+     */
+    public void recordReviewDeleted(Long userId, int rating) {
+        applyReviewDelta(userId, -1, -rating);
+    }
+
+    /**
+     * Record several review changes of one user at once
+     * @param createdCount number of new reviews
+     * @param ratingDelta  rating sum of new reviews plus rating changes of updated ones
+     */
+    public void recordReviewChanges(Long userId, int createdCount, int ratingDelta) {
+        if (createdCount != 0 || ratingDelta != 0) {
+            applyReviewDelta(userId, createdCount, ratingDelta);
+        }
+    }
+
+    /**
+     * Recompute all counters of a user from orders and reviews
+     */
+    public UserStats rebuild(Long userId) {
+        log.info("Rebuilding user stats for user: {}", userId);
+
+        UserStats stats = userStatsRepository.save(computeStats(userId));
+
+        userCategoryStatsRepository.deleteByUserId(userId);
+        List<UserCategoryStats> categoryStats = new ArrayList<>();
+        for (Object[] row : orderItemRepository.countItemsByCategoryForUser(userId)) {
+            categoryStats.add(new UserCategoryStats(userId,
+                    ((Number) row[0]).longValue(), ((Number) row[1]).intValue()));
+        }
+        userCategoryStatsRepository.saveAll(categoryStats);
+
+        return stats;
+    }
+
+    /**
+     * Lock the counter row of a user before applying a delta.
+     * A missing row is created and rebuilt from orders and reviews, which already include the
+     * change being recorded, so empty is returned and there is nothing left to apply.
+     */
+    private Optional<UserStats> lockForDelta(Long userId) {
+        // Plain read first: a locking read of a missing row takes a gap lock, and two concurrent
+        // first writes holding it would deadlock on their inserts
+        if (!userStatsRepository.existsById(userId)) {
+            if (userStatsRepository.insertIfAbsent(userId, LocalDateTime.now()) > 0) {
+                rebuild(userId);
+                return Optional.empty();
+            }
+            // Another transaction created the row first; its rebuild cannot see this change
+            log.debug("User stats for user {} created concurrently, applying delta", userId);
+        }
+        return userStatsRepository.findByUserIdForUpdate(userId);
+    }
+
+    private void applyReviewDelta(Long userId, int countDelta, int ratingDelta) {
+        Optional<UserStats> existing = lockForDelta(userId);
+        if (existing.isEmpty()) {
+            return;
+        }
+
+        UserStats stats = existing.get();
+        stats.setTotalReviews(stats.getTotalReviews() + countDelta);
+        stats.setRatingSum(stats.getRatingSum() + ratingDelta);
+        userStatsRepository.save(stats);
+    }
+
+    private void incrementCategories(Long userId, Map<Long, Integer> itemsByCategory) {
+        Map<Long, UserCategoryStats> existing = userCategoryStatsRepository
+                .findByUserIdAndCategoryIdIn(userId, itemsByCategory.keySet()).stream()
+                .collect(Collectors.toMap(UserCategoryStats::getCategoryId, Function.identity()));
+
+        List<UserCategoryStats> toSave = new ArrayList<>();
+        itemsByCategory.forEach((categoryId, count) -> {
+            UserCategoryStats categoryStats = existing.get(categoryId);
+            if (categoryStats == null) {
+                categoryStats = new UserCategoryStats(userId, categoryId, count);
+            } else {
+                categoryStats.setPurchaseCount(categoryStats.getPurchaseCount() + count);
+            }
+            toSave.add(categoryStats);
+        });
+        userCategoryStatsRepository.saveAll(toSave);
+    }
+
+    private UserStats computeStats(Long userId) {
+        UserStats stats = new UserStats(userId);
+
+        int totalOrders = 0;
+        for (Object[] row : orderRepository.getOrderTotalsByStatusForUser(userId)) {
+            Order.OrderStatus status = (Order.OrderStatus) row[0];
+            int count = ((Number) row[1]).intValue();
+
+            totalOrders += count;
+            stats.adjustStatusCount(status, count);
+            if (status == Order.OrderStatus.DELIVERED) {
+                stats.setTotalSpent(toBigDecimal(row[2]));
+            }
+        }
+        stats.setTotalOrders(totalOrders);
+
+        List<Object[]> reviewTotals = reviewRepository.getReviewTotalsByUserId(userId);
+        if (!reviewTotals.isEmpty()) {
+            Object[] row = reviewTotals.get(0);
+            stats.setTotalReviews(((Number) row[0]).intValue());
+            stats.setRatingSum(((Number) row[1]).longValue());
+        }
+
+        return stats;
+    }
+
+    private BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        return new BigDecimal(value.toString());
+    }
+}
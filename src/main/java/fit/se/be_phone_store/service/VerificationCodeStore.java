@@ -0,0 +1,64 @@
+package fit.se.be_phone_store.service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Verification Code Store
+ * Holds pending email verification codes, keyed by email.
+ * Implementations: CaffeineVerificationCodeStore (single node) and DatabaseVerificationCodeStore (multi-node),
+ * selected with app.verification.store=memory|database.
+ */
+public interface VerificationCodeStore {
+
+    /**
+     * Store a code, replacing any pending code for the email (attempts reset to 0)
+     */
+    void save(String email, String code, LocalDateTime expirationTime);
+
+    Optional<VerificationCode> find(String email);
+
+    /**
+     * Record a failed attempt
+     * @return attempts made so far, or 0 if no code is pending
+     */
+    int incrementAttempts(String email);
+
+    void remove(String email);
+
+    /**
+     * Number of pending codes (for metrics)
+     */
+    long size();
+
+    /**
+     * Pending verification code
+     */
+    final class VerificationCode {
+        private final String code;
+        private final LocalDateTime expirationTime;
+        private final int attempts;
+
+        public VerificationCode(String code, LocalDateTime expirationTime, int attempts) {
+            this.code = code;
+            this.expirationTime = expirationTime;
+            this.attempts = attempts;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public LocalDateTime getExpirationTime() {
+            return expirationTime;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public boolean isExpired() {
+            return LocalDateTime.now().isAfter(expirationTime);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package fit.se.be_phone_store.util;
 
+import fit.se.be_phone_store.service.TokenRevocationService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,15 +8,18 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
 
 /**
  * JWT Authentication Filter
@@ -27,7 +31,8 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
-    private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -37,17 +42,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = parseJwt(request);
 
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUsernameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-
-                log.debug("Set authentication for user: {}", username);
+            // Single verification; repeated tokens are served from the verified-token cache
+            Optional<VerifiedJwt> verified = jwt != null ? jwtUtils.verifyJwtToken(jwt) : Optional.empty();
+            if (verified.isPresent()) {
+                VerifiedJwt token = verified.get();
+                String username = token.getSubject();
+
+                // Refresh tokens are only accepted by /auth/refresh; revoked IDs are an in-memory lookup
+                if (token.isRefreshToken() || tokenRevocationService.isRevoked(token.getTokenId())) {
+                    log.debug("Rejected revoked or non-access token for: {}", username);
+                } else {
+                    authenticate(request, token, username);
+                }
             }
         } catch (Exception e) {
             log.error("Cannot set user authentication: {}", e.getMessage());
@@ -56,6 +62,40 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Set the SecurityContext from a verified access token
+     */
+    private void authenticate(HttpServletRequest request, VerifiedJwt token, String username) {
+        // Cached principal snapshot, loaded from the database only on a miss
+        AuthenticatedUser principal = principalCache.get(username);
+
+        // Reject tokens issued before the user's last role or status change
+        Integer tokenVersion = token.getTokenVersion();
+        if (tokenVersion != null && tokenVersion != principal.getTokenVersion()) {
+            log.debug("Rejected stale token for user: {}", username);
+            return;
+        }
+
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(principal, null, resolveAuthorities(token, principal));
+
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        log.debug("Set authentication for user: {}", username);
+    }
+
+    /**
+     * Authorities from the verified role claim, falling back to the principal for tokens without one
+     */
+    private Collection<? extends GrantedAuthority> resolveAuthorities(VerifiedJwt token, AuthenticatedUser principal) {
+        String role = token.getRole();
+        if (role == null) {
+            return principal.getAuthorities();
+        }
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role));
+    }
+
     /**
      * Extract JWT token from Authorization header
      */
@@ -1,13 +1,28 @@
 package fit.se.be_phone_store.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import fit.se.be_phone_store.entity.User;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT Utility Class (Compatible with JWT 0.9.1)
@@ -17,6 +32,15 @@ import java.util.Date;
 @Slf4j
 public class JwtUtils {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+    public static final String CLAIM_TOKEN_TYPE = "typ";
+    public static final String CLAIM_FAMILY_ID = "fam";
+
+    public static final String TOKEN_TYPE_ACCESS = "access";
+    public static final String TOKEN_TYPE_REFRESH = "refresh";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -26,23 +50,80 @@ public class JwtUtils {
     @Value("${jwt.refresh-expiration}")
     private int jwtRefreshExpirationMs;
 
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    // HMAC key derived once from jwt.secret (same Base64 decoding jjwt applies to String secrets)
+    private Key signingKey;
+
+    // Recently verified tokens keyed by SHA-256 of the token, each entry expiring with its token
+    private Cache<String, VerifiedJwt> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        this.signingKey = new SecretKeySpec(TextCodec.BASE64.decode(jwtSecret),
+                SignatureAlgorithm.HS512.getJcaName());
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedJwt>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedJwt value, long currentTime) {
+                        long remaining = value.getRemainingMillis(System.currentTimeMillis());
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remaining, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedJwt value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedJwt value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     /**
      * Generate JWT token from authentication
      */
     public String generateJwtToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof User) {
+            User user = (User) principal;
+            return generateAccessToken(user.getId(), user.getUsername(), user.getRole(), user.getTokenVersion());
+        }
+        if (principal instanceof AuthenticatedUser) {
+            AuthenticatedUser user = (AuthenticatedUser) principal;
+            return generateAccessToken(user.getId(), user.getUsername(), user.getRole(), user.getTokenVersion());
+        }
+        UserDetails userPrincipal = (UserDetails) principal;
         return generateTokenFromUsername(userPrincipal.getUsername());
     }
 
+    /**
+     * Generate access token carrying user ID, role and user-version claims
+     */
+    public String generateAccessToken(Long userId, String username, User.Role role, int tokenVersion) {
+        Claims claims = Jwts.claims();
+        claims.put(CLAIM_USER_ID, userId);
+        claims.put(CLAIM_ROLE, role.name());
+        claims.put(CLAIM_TOKEN_VERSION, tokenVersion);
+        return generateTokenWithClaims(username, claims);
+    }
+
     /**
      * Generate JWT token from username
      */
     public String generateTokenFromUsername(String username) {
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
+                .claim(CLAIM_TOKEN_TYPE, TOKEN_TYPE_ACCESS)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .signWith(SignatureAlgorithm.HS512, signingKey)
                 .compact();
     }
 
@@ -50,43 +131,65 @@ public class JwtUtils {
      * Generate refresh token
      */
     public String generateRefreshToken(String username) {
-        return Jwts.builder()
+        return generateRefreshToken(username, UUID.randomUUID().toString(), null);
+    }
+
+    /**
+     * Generate refresh token belonging to a rotation family
+     */
+    public String generateRefreshToken(String username, String tokenId, String familyId) {
+        JwtBuilder builder = Jwts.builder()
+                .setId(tokenId)
                 .setSubject(username)
+                .claim(CLAIM_TOKEN_TYPE, TOKEN_TYPE_REFRESH)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtRefreshExpirationMs))
-                .signWith(SignatureAlgorithm.HS512, jwtSecret)
-                .compact();
+                .signWith(SignatureAlgorithm.HS512, signingKey);
+
+        if (familyId != null) {
+            builder.claim(CLAIM_FAMILY_ID, familyId);
+        }
+
+        return builder.compact();
     }
 
-    /**
-     * Get username from JWT token
-     */
-    public String getUsernameFromJwtToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(jwtSecret)
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+    public long getRefreshExpirationMs() {
+        return jwtRefreshExpirationMs;
     }
 
     /**
-     * Get expiration date from JWT token
+     * Verify token signature and expiration once, returning its immutable claims.
+     * Results are cached until the token expires, so repeated calls are a hash lookup.
+     * @throws JwtException if the token is invalid or expired
      */
-    public Date getExpirationDateFromJwtToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(jwtSecret)
+    public VerifiedJwt parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("JWT String argument cannot be null or empty.");
+        }
+
+        String key = hashToken(token);
+        VerifiedJwt cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && !cached.isExpired(System.currentTimeMillis())) {
+            return cached;
+        }
+
+        Claims claims = Jwts.parser()
+                .setSigningKey(signingKey)
                 .parseClaimsJws(token)
-                .getBody()
-                .getExpiration();
+                .getBody();
+        VerifiedJwt verified = new VerifiedJwt(claims.getSubject(), claims.getIssuedAt(),
+                claims.getExpiration(), claims);
+        verifiedTokens.put(key, verified);
+        return verified;
     }
 
     /**
-     * Validate JWT token
+     * Verify JWT token, logging the failure reason
+     * @return verified claims, or empty if the token is invalid
      */
-    public boolean validateJwtToken(String authToken) {
+    public Optional<VerifiedJwt> verifyJwtToken(String authToken) {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-            return true;
+            return Optional.of(parseToken(authToken));
         } catch (SignatureException e) {
             log.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -101,7 +204,28 @@ public class JwtUtils {
             log.error("JWT token validation error: {}", e.getMessage());
         }
 
-        return false;
+        return Optional.empty();
+    }
+
+    /**
+     * Get username from JWT token
+     */
+    public String getUsernameFromJwtToken(String token) {
+        return parseToken(token).getSubject();
+    }
+
+    /**
+     * Get expiration date from JWT token
+     */
+    public Date getExpirationDateFromJwtToken(String token) {
+        return parseToken(token).getExpiration();
+    }
+
+    /**
+     * Validate JWT token
+     */
+    public boolean validateJwtToken(String authToken) {
+        return verifyJwtToken(authToken).isPresent();
     }
 
     /**
@@ -109,8 +233,7 @@ public class JwtUtils {
      */
     public boolean isTokenExpired(String token) {
         try {
-            Date expiration = getExpirationDateFromJwtToken(token);
-            return expiration.before(new Date());
+            return parseToken(token).isExpired(System.currentTimeMillis());
         } catch (Exception e) {
             log.error("Error checking token expiration: {}", e.getMessage());
             return true;
@@ -122,8 +245,7 @@ public class JwtUtils {
      */
     public long getTokenRemainingTime(String token) {
         try {
-            Date expiration = getExpirationDateFromJwtToken(token);
-            return expiration.getTime() - new Date().getTime();
+            return parseToken(token).getRemainingMillis(System.currentTimeMillis());
         } catch (Exception e) {
             log.error("Error getting token remaining time: {}", e.getMessage());
             return 0;
@@ -131,13 +253,10 @@ public class JwtUtils {
     }
 
     /**
-     * Extract all claims from JWT token
+     * Extract all claims from JWT token (a copy; verified claims stay immutable)
      */
     public Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(jwtSecret)
-                .parseClaimsJws(token)
-                .getBody();
+        return Jwts.claims(parseToken(token).getClaims());
     }
 
     /**
@@ -145,10 +264,12 @@ public class JwtUtils {
      */
     public String generateTokenWithClaims(String username, Claims extraClaims) {
         JwtBuilder builder = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
+                .claim(CLAIM_TOKEN_TYPE, TOKEN_TYPE_ACCESS)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(SignatureAlgorithm.HS512, jwtSecret);
+                .signWith(SignatureAlgorithm.HS512, signingKey);
 
         // Add extra claims
         if (extraClaims != null) {
@@ -170,6 +291,11 @@ public class JwtUtils {
      */
     public String getTokenType(String token) {
         try {
+            String type = parseToken(token).getTokenType();
+            if (type != null) {
+                return type;
+            }
+
             long remainingTime = getTokenRemainingTime(token);
             // If remaining time is more than access token expiration, it's likely a refresh token
             return remainingTime > jwtExpirationMs ? "refresh" : "access";
@@ -178,4 +304,17 @@ public class JwtUtils {
             return "unknown";
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * SHA-256 of the token, so raw tokens are never held as cache keys
+     */
+    private String hashToken(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package fit.se.be_phone_store.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import fit.se.be_phone_store.entity.PrincipalInvalidation;
+import fit.se.be_phone_store.entity.User;
+import fit.se.be_phone_store.repository.PrincipalInvalidationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Principal Cache
+ * Bounded, TTL-based cache of authenticated principals keyed by JWT subject (username or email).
+ * Lets JwtAuthenticationFilter authenticate requests without a user query per request.
+ * Evictions are recorded in principal_invalidations, and TokenRevocationService replays them
+ * on every other node with its revocation sync.
+ */
+@Component
+@Slf4j
+public class PrincipalCache {
+
+    private final UserDetailsService userDetailsService;
+    private final PrincipalInvalidationRepository principalInvalidationRepository;
+    private final Cache<String, AuthenticatedUser> cache;
+
+    public PrincipalCache(UserDetailsService userDetailsService,
+                          PrincipalInvalidationRepository principalInvalidationRepository,
+                          @Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${app.security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userDetailsService = userDetailsService;
+        this.principalInvalidationRepository = principalInvalidationRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * Get principal for token subject, loading it through UserDetailsService on a miss
+     */
+    public AuthenticatedUser get(String subject) {
+        return cache.get(subject, this::load);
+    }
+
+    /**
+     * Evict all cached principals of a user, on this node and, once synced, on every other node.
+     * Evicts again after commit so a concurrent request cannot re-cache the old state.
+     */
+    public void evict(User user) {
+        if (user == null) {
+            return;
+        }
+        String username = user.getUsername();
+        String email = user.getEmail();
+        principalInvalidationRepository.save(new PrincipalInvalidation(null, username, email, LocalDateTime.now()));
+        evictKeys(username, email);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictKeys(username, email);
+                }
+            });
+        }
+    }
+
+    /**
+     * Evict the cached principals of a user on this node only (invalidation recorded by another node)
+     */
+    public void evictLocal(String username, String email) {
+        evictKeys(username, email);
+    }
+
+    /**
+     * Evict every cached principal
+     */
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    private void evictKeys(String username, String email) {
+        if (username != null) {
+            cache.invalidate(username);
+        }
+        if (email != null) {
+            cache.invalidate(email);
+        }
+        log.debug("Evicted cached principal for user: {}", username);
+    }
+
+    private AuthenticatedUser load(String subject) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(subject);
+        if (!(userDetails instanceof User)) {
+            throw new UsernameNotFoundException("Unsupported principal type for: " + subject);
+        }
+        return AuthenticatedUser.from((User) userDetails);
+    }
+}
@@ -0,0 +1,77 @@
+package fit.se.be_phone_store.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fit.se.be_phone_store.config.RateLimitProperties;
+import fit.se.be_phone_store.service.RateLimitService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rate Limit Filter
+ * Applies per-IP route rules before authentication and rejects excess requests with 429 + Retry-After
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitService rateLimitService;
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        long retryAfter = rateLimitService.checkRequest(resolveClientIp(request), request.getMethod(), path,
+                request.getParameterMap());
+        if (retryAfter > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("timestamp", LocalDateTime.now().toString());
+            errorResponse.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+            errorResponse.put("errorCode", "RATE_LIMIT_EXCEEDED");
+            errorResponse.put("message", "Quá nhiều yêu cầu, vui lòng thử lại sau");
+            errorResponse.put("path", request.getRequestURI());
+
+            objectMapper.writeValue(response.getOutputStream(), errorResponse);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Resolve client IP, honouring X-Forwarded-For only when configured
+     */
+    private String resolveClientIp(HttpServletRequest request) {
+        if (properties.isTrustForwardedFor()) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return (comma > 0 ? forwarded.substring(0, comma) : forwarded).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,108 @@
+package fit.se.be_phone_store.util;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Verified JWT
+ * Immutable view of a token whose signature and expiration have been checked once.
+ */
+public final class VerifiedJwt {
+
+    private final String tokenId;
+    private final String subject;
+    private final long issuedAtMillis;
+    private final long expiresAtMillis;
+    private final Map<String, Object> claims;
+
+    public VerifiedJwt(String subject, Date issuedAt, Date expiration, Map<String, Object> claims) {
+        Object id = claims.get(Claims.ID);
+        this.tokenId = id != null ? id.toString() : null;
+        this.subject = subject;
+        this.issuedAtMillis = issuedAt != null ? issuedAt.getTime() : 0L;
+        this.expiresAtMillis = expiration != null ? expiration.getTime() : Long.MAX_VALUE;
+        this.claims = Collections.unmodifiableMap(new LinkedHashMap<>(claims));
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public long getIssuedAtMillis() {
+        return issuedAtMillis;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public Date getExpiration() {
+        return new Date(expiresAtMillis);
+    }
+
+    /**
+     * Get a single claim value, or null if absent
+     */
+    public Object getClaim(String name) {
+        return claims.get(name);
+    }
+
+    /**
+     * Get token ID (jti), or null for tokens issued without one
+     */
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    /**
+     * Get token type claim (access or refresh), or null if absent
+     */
+    public String getTokenType() {
+        Object type = claims.get(JwtUtils.CLAIM_TOKEN_TYPE);
+        return type != null ? type.toString() : null;
+    }
+
+    public boolean isRefreshToken() {
+        return JwtUtils.TOKEN_TYPE_REFRESH.equals(getTokenType());
+    }
+
+    /**
+     * Get refresh token family ID, or null if absent
+     */
+    public String getFamilyId() {
+        Object family = claims.get(JwtUtils.CLAIM_FAMILY_ID);
+        return family != null ? family.toString() : null;
+    }
+
+    /**
+     * Get role claim of an access token, or null if absent
+     */
+    public String getRole() {
+        Object role = claims.get(JwtUtils.CLAIM_ROLE);
+        return role != null ? role.toString() : null;
+    }
+
+    /**
+     * Get user-version claim of an access token, or null if absent
+     */
+    public Integer getTokenVersion() {
+        Object version = claims.get(JwtUtils.CLAIM_TOKEN_VERSION);
+        return version instanceof Number ? ((Number) version).intValue() : null;
+    }
+
+    public Map<String, Object> getClaims() {
+        return claims;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAtMillis <= nowMillis;
+    }
+
+    public long getRemainingMillis(long nowMillis) {
+        return expiresAtMillis - nowMillis;
+    }
+}
@@ -1,10 +1,8 @@
 package fit.se.be_phone_store;
 
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
-class BePhoneStoreApplicationTests {
+class BePhoneStoreApplicationTests extends IntegrationTestSupport {
 
     @Test
     void contextLoads() {
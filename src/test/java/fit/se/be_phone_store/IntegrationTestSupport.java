@@ -0,0 +1,290 @@
+package fit.se.be_phone_store;
+
+import fit.se.be_phone_store.entity.Brand;
+import fit.se.be_phone_store.entity.Cart;
+import fit.se.be_phone_store.entity.CartItem;
+import fit.se.be_phone_store.entity.Category;
+import fit.se.be_phone_store.entity.Color;
+import fit.se.be_phone_store.entity.Order;
+import fit.se.be_phone_store.entity.OrderItem;
+import fit.se.be_phone_store.entity.OrderTracking;
+import fit.se.be_phone_store.entity.Product;
+import fit.se.be_phone_store.entity.ProductColor;
+import fit.se.be_phone_store.entity.ProductImage;
+import fit.se.be_phone_store.entity.ProductSpecification;
+import fit.se.be_phone_store.entity.Review;
+import fit.se.be_phone_store.entity.User;
+import fit.se.be_phone_store.repository.BrandRepository;
+import fit.se.be_phone_store.repository.CartItemRepository;
+import fit.se.be_phone_store.repository.CartRepository;
+import fit.se.be_phone_store.repository.CategoryRepository;
+import fit.se.be_phone_store.repository.ColorRepository;
+import fit.se.be_phone_store.repository.OrderItemRepository;
+import fit.se.be_phone_store.repository.OrderRepository;
+import fit.se.be_phone_store.repository.OrderTrackingRepository;
+import fit.se.be_phone_store.repository.ProductColorRepository;
+import fit.se.be_phone_store.repository.ProductImageRepository;
+import fit.se.be_phone_store.repository.ProductRepository;
+import fit.se.be_phone_store.repository.ProductSpecificationRepository;
+import fit.se.be_phone_store.repository.ReviewRepository;
+import fit.se.be_phone_store.repository.UserRepository;
+import fit.se.be_phone_store.util.AuthenticatedUser;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+
+/**
+ * Integration Test Support
+ * Boots the application against the in-memory test database and builds the catalog,
+ * user and order fixtures the service tests need. Fixture names are unique, so tests
+ * share one application context without cleaning up after each other.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(StatementCounter.class)
+public abstract class IntegrationTestSupport {
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected CategoryRepository categoryRepository;
+
+    @Autowired
+    protected BrandRepository brandRepository;
+
+    @Autowired
+    protected ColorRepository colorRepository;
+
+    @Autowired
+    protected ProductRepository productRepository;
+
+    @Autowired
+    protected ProductColorRepository productColorRepository;
+
+    @Autowired
+    protected ProductImageRepository productImageRepository;
+
+    @Autowired
+    protected ProductSpecificationRepository productSpecificationRepository;
+
+    @Autowired
+    protected CartRepository cartRepository;
+
+    @Autowired
+    protected CartItemRepository cartItemRepository;
+
+    @Autowired
+    protected OrderRepository orderRepository;
+
+    @Autowired
+    protected OrderItemRepository orderItemRepository;
+
+    @Autowired
+    protected OrderTrackingRepository orderTrackingRepository;
+
+    @Autowired
+    protected ReviewRepository reviewRepository;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Run the action and return the number of JDBC statements it prepared, Hibernate and JdbcTemplate alike
+     */
+    protected long statementsDuring(Runnable action) {
+        StatementCounter.reset();
+        action.run();
+        return StatementCounter.count();
+    }
+
+    protected Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Authenticate the current thread the way JwtAuthenticationFilter does
+     */
+    protected void authenticateAs(User user) {
+        AuthenticatedUser principal = AuthenticatedUser.from(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    /**
+     * Authenticate a MockMvc request the way JwtAuthenticationFilter does
+     */
+    protected static RequestPostProcessor as(User user) {
+        AuthenticatedUser principal = AuthenticatedUser.from(user);
+        return authentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    protected static String unique(String prefix) {
+        return prefix + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    protected User createUser() {
+        User user = new User();
+        user.setUsername(unique("user"));
+        user.setEmail(unique("mail") + "@example.com");
+        user.setPassword("{noop}secret");
+        user.setFullName("Test Customer");
+        user.setRole(User.Role.USER);
+        user.setEnabled(true);
+        return userRepository.save(user);
+    }
+
+    protected Category createCategory() {
+        Category category = new Category();
+        category.setName(unique("category"));
+        return categoryRepository.save(category);
+    }
+
+    protected Brand createBrand() {
+        Brand brand = new Brand();
+        brand.setName(unique("brand"));
+        return brandRepository.save(brand);
+    }
+
+    protected Color createColor() {
+        return colorRepository.save(Color.builder()
+                .colorName(unique("color"))
+                .hexCode("#000000")
+                .build());
+    }
+
+    /**
+     * Active product available in its default color, with two images and two specifications
+     */
+    protected Product createProduct(Category category, Brand brand, Color color) {
+        Product product = new Product();
+        product.setName(unique("phone"));
+        product.setPrice(new BigDecimal("1000.00"));
+        product.setStockQuantity(1000);
+        product.setIsActive(true);
+        product.setCategory(category);
+        product.setBrand(brand);
+        product.setColor(color);
+        product = productRepository.save(product);
+
+        ProductColor productColor = new ProductColor();
+        productColor.setProduct(product);
+        productColor.setColor(color);
+        productColorRepository.save(productColor);
+
+        for (int i = 0; i < 2; i++) {
+            ProductImage image = new ProductImage();
+            image.setProduct(product);
+            image.setImageUrl("https://img.example.com/" + product.getSlug() + "/" + i + ".png");
+            image.setIsPrimary(i == 0);
+            productImageRepository.save(image);
+
+            ProductSpecification specification = new ProductSpecification();
+            specification.setProduct(product);
+            specification.setSpecName("spec-" + i);
+            specification.setSpecValue("value-" + i);
+            productSpecificationRepository.save(specification);
+        }
+        return product;
+    }
+
+    protected List<Product> createProducts(int count) {
+        Category category = createCategory();
+        Brand brand = createBrand();
+        Color color = createColor();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            products.add(createProduct(category, brand, color));
+        }
+        return products;
+    }
+
+    /**
+     * Add one unit of each product in its default color to the user's cart, creating the cart if needed
+     */
+    protected Cart fillCart(User user, List<Product> products) {
+        Cart cart = cartRepository.findByUserId(user.getId()).orElseGet(() -> {
+            Cart newCart = new Cart();
+            newCart.setUser(user);
+            return cartRepository.save(newCart);
+        });
+
+        List<CartItem> items = new ArrayList<>();
+        for (Product product : products) {
+            CartItem item = new CartItem();
+            item.setCart(cart);
+            item.setProduct(product);
+            item.setColor(product.getColor());
+            item.setQuantity(1);
+            item.setUnitPrice(product.getPrice());
+            items.add(item);
+        }
+        cartItemRepository.saveAll(items);
+        return cart;
+    }
+
+    /**
+     * Order of one unit of each product in its default color, with a tracking entry for the status
+     */
+    protected Order createOrder(User user, List<Product> products, Order.OrderStatus status) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(status);
+        order.setShippingAddress("1 Test Street");
+        order.setTotalAmount(new BigDecimal("1000.00").multiply(BigDecimal.valueOf(products.size())));
+        order = orderRepository.save(order);
+
+        List<OrderItem> items = new ArrayList<>();
+        for (Product product : products) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setColor(product.getColor());
+            item.setQuantity(1);
+            item.setUnitPrice(product.getPrice());
+            items.add(item);
+        }
+        orderItemRepository.saveAll(items);
+
+        OrderTracking tracking = new OrderTracking();
+        tracking.setOrder(order);
+        tracking.setStatus(status);
+        orderTrackingRepository.save(tracking);
+        return order;
+    }
+
+    protected Review createReview(User user, Product product, int rating) {
+        Review review = new Review();
+        review.setUser(user);
+        review.setProduct(product);
+        review.setRating(rating);
+        review.setComment("Review with rating " + rating);
+        return reviewRepository.save(review);
+    }
+}
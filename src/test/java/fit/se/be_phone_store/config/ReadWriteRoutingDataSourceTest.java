@@ -0,0 +1,67 @@
+package fit.se.be_phone_store.config;
+
+import fit.se.be_phone_store.entity.User;
+import fit.se.be_phone_store.util.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(() -> true, Duration.ofSeconds(10));
+
+    @AfterEach
+    void reset() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToHealthyReplica() {
+        inTransaction(true);
+
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ReadWriteRoutingDataSource.Route.REPLICA);
+    }
+
+    @Test
+    void userStaysOnPrimaryAfterOwnWrite() {
+        authenticate(7L);
+        inTransaction(false);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ReadWriteRoutingDataSource.Route.PRIMARY);
+
+        inTransaction(true);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ReadWriteRoutingDataSource.Route.PRIMARY);
+
+        authenticate(8L);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ReadWriteRoutingDataSource.Route.REPLICA);
+    }
+
+    @Test
+    void everyoneReadsFromPrimaryAfterCachedDataChanged() {
+        routing.holdReadsOnPrimary();
+        inTransaction(true);
+
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ReadWriteRoutingDataSource.Route.PRIMARY);
+        authenticate(9L);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ReadWriteRoutingDataSource.Route.PRIMARY);
+    }
+
+    private void inTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private void authenticate(Long userId) {
+        AuthenticatedUser principal = new AuthenticatedUser(userId, "user" + userId, "user" + userId + "@example.com",
+                User.Role.USER, true, 0);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,83 @@
+package fit.se.be_phone_store.config;
+
+import fit.se.be_phone_store.dto.response.category.CategoryResponse;
+import fit.se.be_phone_store.entity.Category;
+import fit.se.be_phone_store.repository.CategoryRepository;
+import fit.se.be_phone_store.service.CategoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the application against two H2 databases, one standing in for the replica, and checks that
+ * read-only service transactions really read from it through LazyConnectionDataSourceProxy and
+ * JpaTransactionManager while write transactions stay on the primary.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_primary;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.enabled=true",
+        "app.datasource.replica.url=" + ReplicaRoutingIntegrationTest.REPLICA_URL,
+        "app.datasource.replica.username=sa",
+        "app.datasource.replica.password=",
+        "app.datasource.replica.driver-class-name=org.h2.Driver"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingIntegrationTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    // SHOW SLAVE STATUS does not exist in H2; the replica reports unhealthy until the test says otherwise
+    @MockitoBean
+    private ReplicaHealthMonitor replicaHealthMonitor;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void readOnlyTransactionsReadTheReplicaAndWritesThePrimary() {
+        String marker = "REPLICA_ONLY_" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        copySchemaTo(replica);
+        replica.update("INSERT INTO categories (name, description, created_at, updated_at) "
+                + "VALUES (?, 'only in the replica', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", marker);
+        when(replicaHealthMonitor.isHealthy()).thenReturn(true);
+
+        List<CategoryResponse> replicaCategories = categoryService.getAllCategories().getData();
+        List<Category> primaryCategories = new TransactionTemplate(transactionManager)
+                .execute(status -> categoryRepository.findAll());
+
+        assertThat(replicaCategories).extracting(CategoryResponse::getName).contains(marker);
+        assertThat(primaryCategories).extracting(Category::getName).doesNotContain(marker);
+    }
+
+    private void copySchemaTo(JdbcTemplate replica) {
+        List<String> ddl = new JdbcTemplate(primaryDataSource).queryForList("SCRIPT NODATA", String.class);
+        ddl.stream()
+                .filter(statement -> !statement.startsWith("CREATE USER"))
+                .forEach(replica::execute);
+    }
+}
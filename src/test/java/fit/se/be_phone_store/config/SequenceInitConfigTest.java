@@ -0,0 +1,35 @@
+package fit.se.be_phone_store.config;
+
+import fit.se.be_phone_store.IntegrationTestSupport;
+import fit.se.be_phone_store.entity.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SequenceInitConfigTest extends IntegrationTestSupport {
+
+    @Autowired
+    private SequenceInitConfig sequenceInitConfig;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void movesSequencePastExistingIdsAndNeverBack() {
+        Product product = createProducts(1).get(0);
+        // A row issued by the old AUTO_INCREMENT column, far ahead of the sequence
+        long legacyId = 1_000_000 + jdbcTemplate.queryForObject("SELECT MAX(id) FROM product_colors", Long.class);
+        jdbcTemplate.update("UPDATE product_colors SET id = ? WHERE product_id = ?", legacyId, product.getId());
+
+        assertThat(sequenceInitConfig.alignSequence("product_colors_seq", "product_colors")).isTrue();
+
+        // The next block handed out by the sequence starts right after the legacy row
+        long next = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR product_colors_seq", Long.class);
+        assertThat(next - 49).isGreaterThan(legacyId);
+
+        assertThat(sequenceInitConfig.alignSequence("product_colors_seq", "product_colors")).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR product_colors_seq", Long.class)).isGreaterThan(next);
+    }
+}
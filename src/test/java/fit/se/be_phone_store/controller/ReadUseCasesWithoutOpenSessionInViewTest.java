@@ -0,0 +1,103 @@
+package fit.se.be_phone_store.controller;
+
+import fit.se.be_phone_store.IntegrationTestSupport;
+import fit.se.be_phone_store.dto.request.AddToCartRequest;
+import fit.se.be_phone_store.entity.Order;
+import fit.se.be_phone_store.entity.Product;
+import fit.se.be_phone_store.entity.User;
+import fit.se.be_phone_store.service.CartService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Every read use case serializes its response after the service transaction has ended
+ * (open-in-view is off), so a lazy association missed by its fetch plan fails with
+ * LazyInitializationException and turns the response into a 500.
+ */
+class ReadUseCasesWithoutOpenSessionInViewTest extends IntegrationTestSupport {
+
+    @Autowired
+    private CartService cartService;
+
+    @Value("${spring.jpa.open-in-view}")
+    private boolean openInView;
+
+    private User user;
+    private List<Product> products;
+    private Order order;
+
+    @BeforeEach
+    void createFixtures() {
+        user = createUser();
+        products = createProducts(3);
+        order = createOrder(user, products, Order.OrderStatus.DELIVERED);
+        createReview(user, products.get(0), 5);
+        createReview(createUser(), products.get(0), 3);
+
+        authenticateAs(user);
+        cartService.addItemToCart(new AddToCartRequest(products.get(1).getId(), products.get(1).getColor().getId(), 2));
+    }
+
+    @Test
+    void openSessionInViewIsDisabled() {
+        assertThat(openInView).isFalse();
+    }
+
+    @Test
+    void productCards() throws Exception {
+        mockMvc.perform(get("/products").param("category_id", products.get(0).getCategory().getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(3))
+                .andExpect(jsonPath("$.data[0].brand.name").value(products.get(0).getBrand().getName()));
+    }
+
+    @Test
+    void productDetail() throws Exception {
+        mockMvc.perform(get("/products/" + products.get(0).getSlug()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.id").value(products.get(0).getId()))
+                .andExpect(jsonPath("$.data.images.length()").value(2));
+    }
+
+    @Test
+    void orderList() throws Exception {
+        mockMvc.perform(get("/orders").with(as(user)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+    }
+
+    @Test
+    void orderDetail() throws Exception {
+        mockMvc.perform(get("/orders/" + order.getOrderNumber()).with(as(user)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items.length()").value(3));
+    }
+
+    @Test
+    void cart() throws Exception {
+        mockMvc.perform(get("/cart").with(as(user)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items.length()").value(1))
+                .andExpect(jsonPath("$.data.items[0].product.id").value(products.get(1).getId()));
+    }
+
+    @Test
+    void reviewPage() throws Exception {
+        mockMvc.perform(get("/products/" + products.get(0).getId() + "/reviews"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+
+        mockMvc.perform(get("/products/" + products.get(0).getId() + "/reviews").with(as(user)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+    }
+}
@@ -0,0 +1,111 @@
+package fit.se.be_phone_store.controller;
+
+import fit.se.be_phone_store.IntegrationTestSupport;
+import fit.se.be_phone_store.entity.Category;
+import fit.se.be_phone_store.entity.User;
+import fit.se.be_phone_store.service.ReferenceDataChangedEvent;
+import fit.se.be_phone_store.service.ReferenceDataService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Category, brand and color lists are served from the pre-serialized reference data snapshot
+ */
+class ReferenceDataEndpointsTest extends IntegrationTestSupport {
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    @Test
+    void matchingIfNoneMatchReturnsNotModified() throws Exception {
+        for (String path : new String[]{"/categories", "/brands", "/colors"}) {
+            String etag = mockMvc.perform(get(path))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            assertThat(etag).isNotBlank();
+
+            mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag));
+        }
+    }
+
+    @Test
+    void gzipIsServedWhenAccepted() throws Exception {
+        MockHttpServletResponse plain = mockMvc.perform(get("/categories"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse();
+
+        MockHttpServletResponse gzip = mockMvc.perform(get("/categories").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse();
+
+        assertThat(gzip.getHeaderValues(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+
+        assertThat(gunzip(gzip.getContentAsByteArray())).isEqualTo(plain.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void categoryRenameIsServedAfterCommit() throws Exception {
+        Category category = createCategory();
+        User admin = createUser();
+        admin.setRole(User.Role.ADMIN);
+        admin = userRepository.save(admin);
+        String oldEtag = mockMvc.perform(get("/categories"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String newName = "RENAMED_" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        mockMvc.perform(put("/admin/categories/" + category.getId()).with(as(admin))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + newName + "\"}"))
+                .andExpect(status().isOk());
+
+        MockHttpServletResponse response = mockMvc.perform(get("/categories").header(HttpHeaders.IF_NONE_MATCH, oldEtag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotEqualTo(oldEtag);
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).contains(newName);
+    }
+
+    @Test
+    void changeCommittedOnAnotherNodeIsServedAfterVersionCheck() throws Exception {
+        Category category = createCategory();
+        referenceDataService.checkSourceVersion();
+
+        // Another node renames the category and bumps the shared counter; no event reaches this node
+        String newName = "REMOTE_" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        category.setName(newName);
+        categoryRepository.save(category);
+        referenceDataService.recordChange(new ReferenceDataChangedEvent("category"));
+        assertThat(mockMvc.perform(get("/categories")).andReturn().getResponse()
+                .getContentAsString(StandardCharsets.UTF_8)).doesNotContain(newName);
+
+        referenceDataService.checkSourceVersion();
+
+        assertThat(mockMvc.perform(get("/categories")).andReturn().getResponse()
+                .getContentAsString(StandardCharsets.UTF_8)).contains(newName);
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
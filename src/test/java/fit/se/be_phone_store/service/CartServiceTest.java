@@ -0,0 +1,122 @@
+package fit.se.be_phone_store.service;
+
+import fit.se.be_phone_store.IntegrationTestSupport;
+import fit.se.be_phone_store.dto.request.AddToCartRequest;
+import fit.se.be_phone_store.dto.request.SyncCartRequest;
+import fit.se.be_phone_store.dto.response.CartDetailResponse;
+import fit.se.be_phone_store.dto.response.CartSyncResponse;
+import fit.se.be_phone_store.dto.response.CartValidateResponse;
+import fit.se.be_phone_store.entity.CartItem;
+import fit.se.be_phone_store.entity.Product;
+import fit.se.be_phone_store.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartServiceTest extends IntegrationTestSupport {
+
+    @Autowired
+    private CartService cartService;
+
+    @Test
+    void getCartOfFirstTimeUserDoesNotCreateCart() {
+        User user = createUser();
+        authenticateAs(user);
+
+        CartDetailResponse cart = cartService.getCart().getData();
+
+        assertThat(cart.getUser_id()).isEqualTo(user.getId());
+        assertThat(cart.getItems()).isEmpty();
+        assertThat(cart.getTotal_quantity()).isZero();
+        assertThat(cartRepository.findByUserId(user.getId())).isEmpty();
+    }
+
+    @Test
+    void syncCartUpsertsLinesWithoutIdCollisions() {
+        User user = createUser();
+        List<Product> products = createProducts(3);
+        authenticateAs(user);
+        cartService.addItemToCart(new AddToCartRequest(products.get(0).getId(), products.get(0).getColor().getId(), 1));
+
+        // One merged line and two new lines, inserted with IDs taken from cart_items_seq
+        cartService.syncCart(new SyncCartRequest(products.stream()
+                .map(product -> new SyncCartRequest.GuestCartItem(product.getId(), product.getColor().getId(), 2))
+                .toList()));
+        // Hibernate's pooled IDs must not collide with the upserted rows
+        List<Product> more = createProducts(1);
+        cartService.addItemToCart(new AddToCartRequest(more.get(0).getId(), more.get(0).getColor().getId(), 1));
+
+        List<CartItem> items = cartItemRepository.findByUserIdWithProduct(user.getId());
+        assertThat(items).hasSize(4);
+        assertThat(items).extracting(CartItem::getId).doesNotHaveDuplicates();
+        assertThat(items).filteredOn(item -> item.getProduct().getId().equals(products.get(0).getId()))
+                .singleElement()
+                .extracting(CartItem::getQuantity)
+                .isEqualTo(3);
+    }
+
+    @Test
+    void validateCartRunsSameStatementsForAnyNumberOfItems() {
+        long fewStatements = validateCartWithRepricedItems(2).statements;
+        ValidationRun many = validateCartWithRepricedItems(100);
+
+        assertThat(many.response.getPrice_changes())
+                .hasSize(100)
+                .allSatisfy(change -> assertThat(change.getNew_price()).isEqualByComparingTo("900.00"));
+        assertThat(cartItemRepository.findByUserIdWithProduct(many.user.getId()))
+                .allSatisfy(item -> assertThat(item.getUnitPrice()).isEqualByComparingTo("900.00"));
+        assertThat(many.statements).isEqualTo(fewStatements);
+    }
+
+    @Test
+    void syncCartRunsSameStatementsForAnyNumberOfItems() {
+        long fewStatements = syncGuestCart(2).statements;
+        SyncRun many = syncGuestCart(100);
+
+        assertThat(many.response.getNew_items()).isEqualTo(99);
+        assertThat(many.response.getMerged_items()).isEqualTo(1);
+        assertThat(many.response.getCart_summary().getTotal_items()).isEqualTo(100);
+        assertThat(many.statements).isEqualTo(fewStatements);
+    }
+
+    private ValidationRun validateCartWithRepricedItems(int itemCount) {
+        User user = createUser();
+        List<Product> products = createProducts(itemCount);
+        fillCart(user, products);
+        products.forEach(product -> product.setDiscountPrice(new BigDecimal("900.00")));
+        productRepository.saveAll(products);
+        authenticateAs(user);
+
+        AtomicReference<CartValidateResponse> response = new AtomicReference<>();
+        long statements = statementsDuring(() -> response.set(cartService.validateCart().getData()));
+        return new ValidationRun(user, response.get(), statements);
+    }
+
+    /**
+     * Sync a guest cart of the given size into a cart that already holds its first product
+     */
+    private SyncRun syncGuestCart(int itemCount) {
+        User user = createUser();
+        List<Product> products = createProducts(itemCount);
+        fillCart(user, products.subList(0, 1));
+        authenticateAs(user);
+
+        SyncCartRequest request = new SyncCartRequest(products.stream()
+                .map(product -> new SyncCartRequest.GuestCartItem(product.getId(), product.getColor().getId(), 1))
+                .toList());
+        AtomicReference<CartSyncResponse> response = new AtomicReference<>();
+        long statements = statementsDuring(() -> response.set(cartService.syncCart(request).getData()));
+        return new SyncRun(response.get(), statements);
+    }
+
+    private record ValidationRun(User user, CartValidateResponse response, long statements) {
+    }
+
+    private record SyncRun(CartSyncResponse response, long statements) {
+    }
+}
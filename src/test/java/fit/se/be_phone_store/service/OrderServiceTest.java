@@ -0,0 +1,90 @@
+package fit.se.be_phone_store.service;
+
+import fit.se.be_phone_store.IntegrationTestSupport;
+import fit.se.be_phone_store.dto.request.CreateOrderRequest;
+import fit.se.be_phone_store.dto.request.SubmitOrderReviewRequest;
+import fit.se.be_phone_store.dto.response.ApiResponse;
+import fit.se.be_phone_store.dto.response.OrderCreatedResponse;
+import fit.se.be_phone_store.dto.response.SubmitOrderReviewResponse;
+import fit.se.be_phone_store.entity.Order;
+import fit.se.be_phone_store.entity.Product;
+import fit.se.be_phone_store.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderServiceTest extends IntegrationTestSupport {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    void submitOrderReviewRunsSameStatementsForAnyNumberOfProducts() {
+        User user = createUser();
+        List<Product> warmUpProducts = createProducts(1);
+        List<Product> fewProducts = createProducts(2);
+        List<Product> manyProducts = createProducts(20);
+        Order warmUpOrder = createOrder(user, warmUpProducts, Order.OrderStatus.DELIVERED);
+        Order fewOrder = createOrder(user, fewProducts, Order.OrderStatus.DELIVERED);
+        Order manyOrder = createOrder(user, manyProducts, Order.OrderStatus.DELIVERED);
+        authenticateAs(user);
+
+        // The first review of a user creates the user_stats row
+        orderService.submitOrderReview(warmUpOrder.getOrderNumber(), reviewsFor(warmUpProducts));
+
+        long fewStatements = statementsDuring(
+                () -> orderService.submitOrderReview(fewOrder.getOrderNumber(), reviewsFor(fewProducts)));
+        AtomicReference<ApiResponse<SubmitOrderReviewResponse>> response = new AtomicReference<>();
+        long manyStatements = statementsDuring(
+                () -> response.set(orderService.submitOrderReview(manyOrder.getOrderNumber(), reviewsFor(manyProducts))));
+
+        assertThat(response.get().getData().getReviewedProducts())
+                .hasSize(20)
+                .allSatisfy(reviewed -> {
+                    assertThat(reviewed.getStatus()).isEqualTo("created");
+                    assertThat(reviewed.getReviewId()).isNotNull();
+                });
+        // At most one extra round trip, when the 20 reviews cross into a new reviews_seq block
+        assertThat(manyStatements).isLessThanOrEqualTo(fewStatements + 1);
+    }
+
+    @Test
+    void createOrderFromCartRunsSameStatementsForAnyNumberOfItems() {
+        User user = createUser();
+        authenticateAs(user);
+
+        // Warm up: the first order of a user creates its user_stats row
+        fillCart(user, createProducts(1));
+        orderService.createOrderFromCart(orderRequest());
+
+        fillCart(user, createProducts(2));
+        long fewStatements = statementsDuring(() -> orderService.createOrderFromCart(orderRequest()));
+
+        fillCart(user, createProducts(30));
+        AtomicReference<ApiResponse<OrderCreatedResponse>> response = new AtomicReference<>();
+        long manyStatements = statementsDuring(() -> response.set(orderService.createOrderFromCart(orderRequest())));
+
+        assertThat(response.get().getData().getOrder().getItems())
+                .hasSize(30)
+                .allSatisfy(item -> assertThat(item.getId()).isNotNull());
+        assertThat(cartItemRepository.findByCart(cartRepository.findByUserId(user.getId()).orElseThrow())).isEmpty();
+        // At most one extra round trip, when the 30 items cross into a new order_items_seq block
+        assertThat(manyStatements).isLessThanOrEqualTo(fewStatements + 1);
+    }
+
+    private CreateOrderRequest orderRequest() {
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setShipping_address("1 Test Street, Ho Chi Minh City");
+        return request;
+    }
+
+    private SubmitOrderReviewRequest reviewsFor(List<Product> products) {
+        return new SubmitOrderReviewRequest(products.stream()
+                .map(product -> new SubmitOrderReviewRequest.ProductReview(product.getId(), 5, "Great phone, fast delivery"))
+                .toList());
+    }
+}
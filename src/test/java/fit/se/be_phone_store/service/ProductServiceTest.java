@@ -0,0 +1,65 @@
+package fit.se.be_phone_store.service;
+
+import fit.se.be_phone_store.IntegrationTestSupport;
+import fit.se.be_phone_store.dto.request.CreateReviewRequest;
+import fit.se.be_phone_store.dto.response.product.ProductResponse;
+import fit.se.be_phone_store.entity.Order;
+import fit.se.be_phone_store.entity.Product;
+import fit.se.be_phone_store.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductServiceTest extends IntegrationTestSupport {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void warmProductDetailOnlyReadsProductRow() {
+        Product product = createProducts(1).get(0);
+        for (int i = 0; i < 8; i++) {
+            createReview(createUser(), product, 4);
+        }
+        // Fixtures bypass the admin services, so announce the new category, brand and color the way they do
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("test"));
+        productService.getProductDetail(product.getSlug());
+
+        statistics().clear();
+        ProductResponse detail = productService.getProductDetail(product.getSlug()).getData();
+
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+        assertThat(detail.getReviews()).hasSize(5);
+        assertThat(detail.getTotalReviews()).isEqualTo(8);
+        assertThat(detail.getImages()).hasSize(2);
+        assertThat(detail.getSpecifications()).hasSize(2);
+    }
+
+    @Test
+    void newReviewShowsOnCachedProductDetail() {
+        User user = createUser();
+        List<Product> products = createProducts(1);
+        Product product = products.get(0);
+        createOrder(user, products, Order.OrderStatus.DELIVERED);
+        createReview(createUser(), product, 2);
+        assertThat(productService.getProductDetail(product.getSlug()).getData().getTotalReviews()).isEqualTo(1);
+
+        authenticateAs(user);
+        reviewService.createReview(new CreateReviewRequest(product.getId(), 4, "Great phone"));
+
+        ProductResponse detail = productService.getProductDetail(product.getSlug()).getData();
+        assertThat(detail.getTotalReviews()).isEqualTo(2);
+        assertThat(detail.getAverageRating()).isEqualTo(3.0);
+        assertThat(detail.getReviews()).extracting(ProductResponse.ReviewInfo::getComment).contains("Great phone");
+    }
+}
@@ -0,0 +1,43 @@
+package fit.se.be_phone_store.service;
+
+import fit.se.be_phone_store.IntegrationTestSupport;
+import fit.se.be_phone_store.entity.User;
+import fit.se.be_phone_store.exception.AuthenticationException;
+import fit.se.be_phone_store.util.JwtUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RefreshTokenServiceTest extends IntegrationTestSupport {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Test
+    void rotationReplacesTokenAndReplayRevokesFamily() {
+        User user = createUser();
+        String first = refreshTokenService.issue(user);
+
+        String second = refreshTokenService.rotate(first).getRefreshToken();
+        assertThat(second).isNotEqualTo(first);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(first)).isInstanceOf(AuthenticationException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate(second)).isInstanceOf(AuthenticationException.class);
+    }
+
+    @Test
+    void onlyRefreshTokensWithFamilyAreAccepted() {
+        User user = createUser();
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(jwtUtils.generateRefreshToken(user.getEmail())))
+                .isInstanceOf(AuthenticationException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate(jwtUtils.generateAccessToken(
+                user.getId(), user.getUsername(), user.getRole(), user.getTokenVersion())))
+                .isInstanceOf(AuthenticationException.class);
+    }
+}
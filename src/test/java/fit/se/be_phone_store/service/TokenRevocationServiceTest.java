@@ -0,0 +1,112 @@
+package fit.se.be_phone_store.service;
+
+import fit.se.be_phone_store.IntegrationTestSupport;
+import fit.se.be_phone_store.entity.PrincipalInvalidation;
+import fit.se.be_phone_store.entity.RevokedToken;
+import fit.se.be_phone_store.entity.User;
+import fit.se.be_phone_store.repository.PrincipalInvalidationRepository;
+import fit.se.be_phone_store.repository.RevokedTokenRepository;
+import fit.se.be_phone_store.util.PrincipalCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationServiceTest extends IntegrationTestSupport {
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private PrincipalInvalidationRepository principalInvalidationRepository;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void syncPicksUpRevocationsWhateverTheirTimestamp() {
+        // Written by another node whose clock runs a day behind
+        String tokenId = recordRevocation(LocalDateTime.now().minusDays(1));
+        assertThat(tokenRevocationService.isRevoked(tokenId)).isFalse();
+
+        tokenRevocationService.syncFromDatabase();
+
+        assertThat(tokenRevocationService.isRevoked(tokenId)).isTrue();
+    }
+
+    @Test
+    void syncPicksUpRevocationCommittedAfterHigherId() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch lowerInserted = new CountDownLatch(1);
+        CountDownLatch releaseLower = new CountDownLatch(1);
+
+        // Takes the lower ID and holds its transaction open
+        String lowerTokenId = UUID.randomUUID().toString();
+        CompletableFuture<Void> lower = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            revokedTokenRepository.saveAndFlush(revocation(lowerTokenId, LocalDateTime.now()));
+            lowerInserted.countDown();
+            await(releaseLower);
+        }));
+        assertThat(lowerInserted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        String higherTokenId = recordRevocation(LocalDateTime.now());
+        tokenRevocationService.syncFromDatabase();
+        assertThat(tokenRevocationService.isRevoked(higherTokenId)).isTrue();
+        assertThat(tokenRevocationService.isRevoked(lowerTokenId)).isFalse();
+
+        releaseLower.countDown();
+        lower.get(10, TimeUnit.SECONDS);
+        tokenRevocationService.syncFromDatabase();
+
+        assertThat(tokenRevocationService.isRevoked(lowerTokenId)).isTrue();
+    }
+
+    @Test
+    void syncEvictsPrincipalChangedOnAnotherNode() {
+        User user = createUser();
+        assertThat(principalCache.get(user.getUsername()).getTokenVersion()).isZero();
+
+        // Another node demotes the user: it bumps token_version and records the invalidation
+        user.incrementTokenVersion();
+        userRepository.save(user);
+        principalInvalidationRepository.save(
+                new PrincipalInvalidation(null, user.getUsername(), user.getEmail(), LocalDateTime.now()));
+        assertThat(principalCache.get(user.getUsername()).getTokenVersion()).isZero();
+
+        tokenRevocationService.syncFromDatabase();
+
+        assertThat(principalCache.get(user.getUsername()).getTokenVersion()).isEqualTo(1);
+    }
+
+    private String recordRevocation(LocalDateTime revokedAt) {
+        String tokenId = UUID.randomUUID().toString();
+        revokedTokenRepository.save(revocation(tokenId, revokedAt));
+        return tokenId;
+    }
+
+    private static RevokedToken revocation(String tokenId, LocalDateTime revokedAt) {
+        return new RevokedToken(null, tokenId, LocalDateTime.now().plusHours(1), revokedAt);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package fit.se.be_phone_store.service;
+
+import fit.se.be_phone_store.IntegrationTestSupport;
+import fit.se.be_phone_store.entity.User;
+import fit.se.be_phone_store.exception.BadRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserServiceTest extends IntegrationTestSupport {
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    void authenticateAdmin() {
+        User admin = createUser();
+        admin.setRole(User.Role.ADMIN);
+        authenticateAs(userRepository.save(admin));
+    }
+
+    @Test
+    void adminUserListRejectsNonPositivePageAndLimit() {
+        assertThatThrownBy(() -> userService.getAllUsersAdmin(0, 10, null, null, null, null, null, null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> userService.getAllUsersAdmin(1, 0, null, null, null, null, null, null))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(userService.getAllUsersAdmin(1, 10, null, null, null, null, null, null).getData().getUsers())
+                .isNotEmpty();
+    }
+}
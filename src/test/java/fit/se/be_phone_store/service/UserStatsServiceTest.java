@@ -0,0 +1,71 @@
+package fit.se.be_phone_store.service;
+
+import fit.se.be_phone_store.IntegrationTestSupport;
+import fit.se.be_phone_store.entity.Product;
+import fit.se.be_phone_store.entity.User;
+import fit.se.be_phone_store.entity.UserStats;
+import fit.se.be_phone_store.repository.UserStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserStatsServiceTest extends IntegrationTestSupport {
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentFirstWritesShareOneCounterRow() throws Exception {
+        User user = createUser();
+        List<Product> products = createProducts(2);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch firstCreatedRow = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+
+        // The first writer creates the counter row and holds its transaction open
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            createReview(user, products.get(0), 5);
+            userStatsService.recordReviewCreated(user.getId(), 5);
+            firstCreatedRow.countDown();
+            await(releaseFirst);
+        }));
+        assertThat(firstCreatedRow.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // The second writer finds no committed row and races the first one on the insert
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            createReview(user, products.get(1), 3);
+            userStatsService.recordReviewCreated(user.getId(), 3);
+        }));
+        Thread.sleep(300);
+        releaseFirst.countDown();
+
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+
+        UserStats stats = userStatsRepository.findById(user.getId()).orElseThrow();
+        assertThat(stats.getTotalReviews()).isEqualTo(2);
+        assertThat(stats.getRatingSum()).isEqualTo(8L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
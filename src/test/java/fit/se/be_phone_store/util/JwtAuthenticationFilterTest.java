@@ -0,0 +1,60 @@
+package fit.se.be_phone_store.util;
+
+import fit.se.be_phone_store.IntegrationTestSupport;
+import fit.se.be_phone_store.entity.User;
+import fit.se.be_phone_store.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class JwtAuthenticationFilterTest extends IntegrationTestSupport {
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void bumpedTokenVersionRejectsOldTokenWithoutUserLookup() {
+        User user = createUser();
+        String oldToken = accessToken(user);
+        assertThat(getCart(oldToken)).isEqualTo(200);
+
+        // Role change bumps token_version and evicts the cached principal
+        User admin = createUser();
+        admin.setRole(User.Role.ADMIN);
+        authenticateAs(userRepository.save(admin));
+        userService.updateUserRole(user.getId(), User.Role.ADMIN);
+        SecurityContextHolder.clearContext();
+
+        // The first request reloads the principal, later ones compare the ver claim in memory
+        assertThat(getCart(oldToken)).isEqualTo(401);
+        AtomicInteger status = new AtomicInteger();
+        long statements = statementsDuring(() -> status.set(getCart(oldToken)));
+        assertThat(status.get()).isEqualTo(401);
+        assertThat(statements).isZero();
+
+        User updated = userRepository.findById(user.getId()).orElseThrow();
+        assertThat(updated.getTokenVersion()).isEqualTo(user.getTokenVersion() + 1);
+        assertThat(getCart(accessToken(updated))).isEqualTo(200);
+    }
+
+    private String accessToken(User user) {
+        return jwtUtils.generateAccessToken(user.getId(), user.getUsername(), user.getRole(), user.getTokenVersion());
+    }
+
+    private int getCart(String token) {
+        try {
+            return mockMvc.perform(get("/cart").header("Authorization", "Bearer " + token))
+                    .andReturn().getResponse().getStatus();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
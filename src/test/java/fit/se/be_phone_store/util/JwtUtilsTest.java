@@ -0,0 +1,80 @@
+package fit.se.be_phone_store.util;
+
+import fit.se.be_phone_store.entity.User;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilsTest {
+
+    private static final String SECRET = "myVerySecretKeyForPhoneEcommerceThatIsAtLeast32Characters";
+
+    private final JwtUtils jwtUtils = new JwtUtils();
+
+    @BeforeEach
+    void init() {
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60_000);
+        ReflectionTestUtils.setField(jwtUtils, "jwtRefreshExpirationMs", 120_000);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheMaxSize", 100L);
+        jwtUtils.init();
+    }
+
+    @Test
+    void cachedTokenSkipsSignatureVerification() {
+        String token = jwtUtils.generateAccessToken(7L, "alice", User.Role.USER, 3);
+        VerifiedJwt first = jwtUtils.parseToken(token);
+
+        // With a different key every fresh verification fails, so only the cache can answer
+        ReflectionTestUtils.setField(jwtUtils, "signingKey", otherKey());
+        VerifiedJwt second = jwtUtils.parseToken(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.getSubject()).isEqualTo("alice");
+        assertThat(second.getTokenVersion()).isEqualTo(3);
+    }
+
+    @Test
+    void tokenIsVerifiedOnFirstUse() {
+        String token = jwtUtils.generateAccessToken(7L, "alice", User.Role.USER, 3);
+        ReflectionTestUtils.setField(jwtUtils, "signingKey", otherKey());
+
+        assertThatThrownBy(() -> jwtUtils.parseToken(token)).isInstanceOf(SignatureException.class);
+        assertThat(jwtUtils.verifyJwtToken(token)).isEmpty();
+    }
+
+    @Test
+    void expiredTokenIsNotServedFromCache() throws InterruptedException {
+        // exp has whole-second precision: keep at least two seconds for the first, uncached parse
+        Date expiration = new Date((System.currentTimeMillis() / 1_000 + 3) * 1_000);
+        String token = Jwts.builder()
+                .setSubject("alice")
+                .setIssuedAt(new Date())
+                .setExpiration(expiration)
+                .signWith(SignatureAlgorithm.HS512, (Key) ReflectionTestUtils.getField(jwtUtils, "signingKey"))
+                .compact();
+        assertThat(jwtUtils.parseToken(token).getSubject()).isEqualTo("alice");
+
+        Thread.sleep(Math.max(expiration.getTime() - System.currentTimeMillis(), 0) + 100);
+
+        assertThatThrownBy(() -> jwtUtils.parseToken(token)).isInstanceOf(ExpiredJwtException.class);
+        assertThat(jwtUtils.validateJwtToken(token)).isFalse();
+    }
+
+    private static Key otherKey() {
+        return new SecretKeySpec("another-secret-that-never-signed-these-tokens".getBytes(StandardCharsets.UTF_8),
+                SignatureAlgorithm.HS512.getJcaName());
+    }
+}